@@ -0,0 +1,232 @@
+package io.qdrant.kafka;
+
+import static org.apache.kafka.connect.runtime.ConnectorConfig.CONNECTOR_CLASS_CONFIG;
+import static org.apache.kafka.connect.runtime.ConnectorConfig.KEY_CONVERTER_CLASS_CONFIG;
+import static org.apache.kafka.connect.runtime.ConnectorConfig.TASKS_MAX_CONFIG;
+import static org.apache.kafka.connect.runtime.ConnectorConfig.VALUE_CONVERTER_CLASS_CONFIG;
+import static org.apache.kafka.connect.runtime.SinkConnectorConfig.TOPICS_CONFIG;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.grpc.Status;
+import io.qdrant.client.grpc.Points.PointsUpdateOperation;
+import io.qdrant.client.grpc.Points.UpdateBatchPoints;
+import io.qdrant.client.grpc.Points.UpsertPoints;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.apache.kafka.connect.runtime.WorkerConfig;
+import org.apache.kafka.connect.storage.StringConverter;
+import org.apache.kafka.connect.util.clusters.EmbeddedConnectCluster;
+import org.apache.kafka.test.TestUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** End-to-end tests of the connector against {@link FakeQdrantServer}, without Docker. */
+public class FakeQdrantConnectorTest {
+
+  static final String CONNECTOR_NAME = "qdrant-fake-sink-connector";
+  static final String TOPIC_NAME = "qdrant-fake-topic";
+  static final String COLLECTION_NAME = "fake-collection";
+  // The default max.poll.records of the consumer of a sink task.
+  static final int MAX_POLL_RECORDS = 500;
+
+  EmbeddedConnectCluster connect;
+  FakeQdrantServer qdrant;
+
+  @BeforeEach
+  void setup() throws Exception {
+    qdrant = new FakeQdrantServer();
+    Map<String, String> workerProps = new HashMap<>();
+    workerProps.put(WorkerConfig.PLUGIN_DISCOVERY_CONFIG, "hybrid_warn");
+    connect =
+        new EmbeddedConnectCluster.Builder()
+            .name("qdrant-fake-connect-cluster")
+            .workerProps(workerProps)
+            .build();
+    connect.start();
+    connect.kafka().createTopic(TOPIC_NAME);
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    connect.stop();
+    qdrant.close();
+  }
+
+  Map<String, String> connectorProperties() {
+    Map<String, String> props = new HashMap<>();
+    props.put(CONNECTOR_CLASS_CONFIG, QdrantSinkConnector.class.getName());
+    props.put(TOPICS_CONFIG, TOPIC_NAME);
+    props.put(TASKS_MAX_CONFIG, Integer.toString(1));
+    props.put(KEY_CONVERTER_CLASS_CONFIG, StringConverter.class.getName());
+    props.put(VALUE_CONVERTER_CLASS_CONFIG, StringConverter.class.getName());
+    props.put(QdrantSinkConfig.GRPC_URL, qdrant.getGrpcUrl());
+    return props;
+  }
+
+  void writePoints(int count) throws Exception {
+    ObjectMapper mapper = new ObjectMapper();
+    for (int i = 0; i < count; i++) {
+      Map<String, Object> message = new HashMap<>();
+      message.put("collection_name", COLLECTION_NAME);
+      message.put("id", i);
+      message.put("vector", List.of(0.1f * i, 0.2f, 0.3f, 0.4f));
+      message.put("payload", Map.of("index", i));
+      connect.kafka().produce(TOPIC_NAME, mapper.writeValueAsString(message));
+    }
+  }
+
+  // The records handed to the task so far, from the metrics of the Connect worker.
+  double recordsRead() throws Exception {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    Set<ObjectName> names =
+        server.queryNames(
+            new ObjectName(
+                "kafka.connect:type=sink-task-metrics,connector=" + CONNECTOR_NAME + ",*"),
+            null);
+    if (names.isEmpty()) {
+      return 0;
+    }
+    return (Double) server.getAttribute(names.iterator().next(), "sink-record-read-total");
+  }
+
+  void waitForPoints(int expectedPoints) throws InterruptedException {
+    TestUtils.waitForCondition(
+        () -> qdrant.getPointCount(COLLECTION_NAME) == expectedPoints,
+        TimeUnit.MINUTES.toMillis(1),
+        String.format("Could not find %d points in time.", expectedPoints));
+  }
+
+  @Test
+  public void testPointsAreWrittenOnceInBoundedRequests() throws Exception {
+    Map<String, String> props = connectorProperties();
+    props.put(QdrantSinkConfig.WRITE_BATCH_MAX_POINTS, "500");
+    connect.configureConnector(CONNECTOR_NAME, props);
+
+    writePoints(5000);
+    waitForPoints(5000);
+
+    List<UpsertPoints> upserts = qdrant.getRequests(UpsertPoints.class);
+    assertTrue(upserts.size() >= 10, "Requests: " + upserts.size());
+    int points = 0;
+    for (UpsertPoints upsert : upserts) {
+      assertTrue(upsert.getPointsCount() <= 500, "Points: " + upsert.getPointsCount());
+      points += upsert.getPointsCount();
+    }
+    // Without failures, every point is sent exactly once.
+    assertEquals(5000, points);
+  }
+
+  @Test
+  public void testInFlightRequestsAreBounded() throws Exception {
+    qdrant.withLatency(50);
+    Map<String, String> props = connectorProperties();
+    props.put(QdrantSinkConfig.WRITE_ASYNC, "true");
+    props.put(QdrantSinkConfig.WRITE_MAX_IN_FLIGHT, "2");
+    props.put(QdrantSinkConfig.WRITE_BATCH_MAX_POINTS, "10");
+    props.put(QdrantSinkConfig.GRPC_CHANNELS, "2");
+    connect.configureConnector(CONNECTOR_NAME, props);
+
+    writePoints(500);
+    waitForPoints(500);
+
+    assertTrue(qdrant.getMaxInFlight() <= 2, "In flight: " + qdrant.getMaxInFlight());
+  }
+
+  @Test
+  public void testThroughputCap() throws Exception {
+    qdrant.withMaxRequestsPerSecond(5);
+    Map<String, String> props = connectorProperties();
+    props.put(QdrantSinkConfig.WRITE_ASYNC, "true");
+    props.put(QdrantSinkConfig.WRITE_BATCH_MAX_POINTS, "100");
+    props.put(QdrantSinkConfig.WRITE_MAX_IN_FLIGHT, "1");
+    props.put(QdrantSinkConfig.WRITE_MAX_PENDING, "2");
+    // The records are all there once the task starts, so nothing but put() holds back its polls.
+    writePoints(1000);
+    connect.configureConnector(CONNECTOR_NAME, props);
+
+    // A put() of a full poll submits its requests one by one, so once it returns, all but two of
+    // them were acknowledged. Without blocking, the task would read every record at once.
+    double[] maxUnacknowledged = new double[1];
+    TestUtils.waitForCondition(
+        () -> {
+          double read = recordsRead();
+          int written = qdrant.getPointCount(COLLECTION_NAME);
+          maxUnacknowledged[0] = Math.max(maxUnacknowledged[0], read - written);
+          return written == 1000;
+        },
+        TimeUnit.MINUTES.toMillis(1),
+        "Could not find 1000 points in time.");
+
+    assertTrue(qdrant.getRequests().size() >= 10);
+    assertEquals(1, qdrant.getMaxInFlight());
+    assertTrue(maxUnacknowledged[0] > 0, "No records read");
+    assertTrue(
+        maxUnacknowledged[0] <= 2 * 100 + MAX_POLL_RECORDS,
+        "Unacknowledged records: " + maxUnacknowledged[0]);
+  }
+
+  @Test
+  public void testTransientFailuresAreRetried() throws Exception {
+    qdrant.withErrorRate(0.2).withResourceExhaustedRate(0.2);
+    Map<String, String> props = connectorProperties();
+    props.put(QdrantSinkConfig.WRITE_BATCH_MAX_POINTS, "10");
+    props.put(QdrantSinkConfig.RETRY_BACKOFF_MS, "1");
+    props.put(QdrantSinkConfig.RETRY_BACKOFF_MAX_MS, "10");
+    connect.configureConnector(CONNECTOR_NAME, props);
+
+    writePoints(500);
+    waitForPoints(500);
+
+    int failed =
+        qdrant.getFailures(Status.Code.UNAVAILABLE)
+            + qdrant.getFailures(Status.Code.RESOURCE_EXHAUSTED);
+    assertTrue(qdrant.getFailures(Status.Code.UNAVAILABLE) > 0);
+    assertTrue(qdrant.getFailures(Status.Code.RESOURCE_EXHAUSTED) > 0);
+    // Every point made it, so the failed requests were sent again on top of the successful ones.
+    int successful = qdrant.getRequests().size() - failed;
+    assertTrue(successful >= 50, "Successful requests: " + successful);
+    assertTrue(qdrant.getRequests().size() > successful);
+  }
+
+  @Test
+  public void testPartialUpdatesSendOnlyPayload() throws Exception {
+    Map<String, String> props = connectorProperties();
+    props.put(QdrantSinkConfig.OPERATION_FIELD, "op");
+    connect.configureConnector(CONNECTOR_NAME, props);
+
+    writePoints(100);
+    waitForPoints(100);
+    ObjectMapper mapper = new ObjectMapper();
+    for (int i = 0; i < 100; i++) {
+      Map<String, Object> message = new HashMap<>();
+      message.put("collection_name", COLLECTION_NAME);
+      message.put("id", i);
+      message.put("payload", Map.of("op", "set_payload", "index", i + 1));
+      connect.kafka().produce(TOPIC_NAME, mapper.writeValueAsString(message));
+    }
+
+    TestUtils.waitForCondition(
+        () ->
+            qdrant.getRequests(UpdateBatchPoints.class).stream()
+                    .mapToInt(UpdateBatchPoints::getOperationsCount)
+                    .sum()
+                == 100,
+        TimeUnit.MINUTES.toMillis(1),
+        "Could not find 100 partial updates in time.");
+    for (UpdateBatchPoints request : qdrant.getRequests(UpdateBatchPoints.class)) {
+      for (PointsUpdateOperation update : request.getOperationsList()) {
+        assertTrue(update.hasSetPayload());
+        assertFalse(update.getSetPayload().containsPayload("op"));
+      }
+    }
+    assertEquals(100, qdrant.getPointCount(COLLECTION_NAME));
+  }
+}
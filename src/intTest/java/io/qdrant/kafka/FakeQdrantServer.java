@@ -0,0 +1,226 @@
+package io.qdrant.kafka;
+
+import com.google.common.util.concurrent.RateLimiter;
+import com.google.protobuf.Message;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import io.grpc.stub.StreamObserver;
+import io.qdrant.client.grpc.Common.PointId;
+import io.qdrant.client.grpc.Points.DeletePoints;
+import io.qdrant.client.grpc.Points.PointStruct;
+import io.qdrant.client.grpc.Points.PointsOperationResponse;
+import io.qdrant.client.grpc.Points.UpdateBatchPoints;
+import io.qdrant.client.grpc.Points.UpdateBatchResponse;
+import io.qdrant.client.grpc.Points.UpdateResult;
+import io.qdrant.client.grpc.Points.UpdateStatus;
+import io.qdrant.client.grpc.Points.UpsertPoints;
+import io.qdrant.client.grpc.PointsGrpc;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An in-process stand-in for the Qdrant Points gRPC service, for tests that do not need a real
+ * Qdrant. Latency, failures and throughput can be configured at any time, and every request is
+ * recorded for assertions.
+ */
+class FakeQdrantServer implements AutoCloseable {
+
+  private final Server server;
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+  private final Queue<Message> requests = new ConcurrentLinkedQueue<>();
+  private final Map<String, Set<PointId>> points = new ConcurrentHashMap<>();
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicInteger maxInFlight = new AtomicInteger();
+  private final Map<Status.Code, AtomicInteger> failures = new ConcurrentHashMap<>();
+
+  private volatile long latencyMs;
+  private volatile double errorRate;
+  private volatile double resourceExhaustedRate;
+  private volatile RateLimiter rateLimiter;
+
+  FakeQdrantServer() throws IOException {
+    server =
+        NettyServerBuilder.forPort(0)
+            .addService(new PointsService())
+            .executor(executor)
+            .maxInboundMessageSize(64 * 1024 * 1024)
+            .build()
+            .start();
+  }
+
+  String getGrpcUrl() {
+    return "http://localhost:" + server.getPort();
+  }
+
+  /** Delays every response by the given time. */
+  FakeQdrantServer withLatency(long latencyMs) {
+    this.latencyMs = latencyMs;
+    return this;
+  }
+
+  /** Fails the given share of requests with UNAVAILABLE. */
+  FakeQdrantServer withErrorRate(double errorRate) {
+    this.errorRate = errorRate;
+    return this;
+  }
+
+  /** Fails the given share of requests with RESOURCE_EXHAUSTED. */
+  FakeQdrantServer withResourceExhaustedRate(double resourceExhaustedRate) {
+    this.resourceExhaustedRate = resourceExhaustedRate;
+    return this;
+  }
+
+  /** Serves at most the given number of requests per second, later requests wait. */
+  FakeQdrantServer withMaxRequestsPerSecond(double requestsPerSecond) {
+    this.rateLimiter = RateLimiter.create(requestsPerSecond);
+    return this;
+  }
+
+  /** Returns every request received so far, in arrival order. */
+  List<Message> getRequests() {
+    return new ArrayList<>(requests);
+  }
+
+  /** Returns the requests of the given type received so far, in arrival order. */
+  <T extends Message> List<T> getRequests(Class<T> type) {
+    List<T> matching = new ArrayList<>();
+    for (Message request : requests) {
+      if (type.isInstance(request)) {
+        matching.add(type.cast(request));
+      }
+    }
+    return matching;
+  }
+
+  /** Returns the number of points the collection holds after the successful requests. */
+  int getPointCount(String collectionName) {
+    Set<PointId> collection = points.get(collectionName);
+    return collection == null ? 0 : collection.size();
+  }
+
+  /** Returns the number of requests failed on purpose with the given status. */
+  int getFailures(Status.Code code) {
+    AtomicInteger count = failures.get(code);
+    return count == null ? 0 : count.get();
+  }
+
+  /** Returns the highest number of requests that were being served at the same time. */
+  int getMaxInFlight() {
+    return maxInFlight.get();
+  }
+
+  @Override
+  public void close() throws InterruptedException {
+    server.shutdownNow().awaitTermination(10, TimeUnit.SECONDS);
+    executor.shutdownNow();
+  }
+
+  private void fail(Status.Code code) {
+    failures.computeIfAbsent(code, k -> new AtomicInteger()).incrementAndGet();
+  }
+
+  private Set<PointId> collection(String collectionName) {
+    return points.computeIfAbsent(collectionName, k -> ConcurrentHashMap.newKeySet());
+  }
+
+  private void handle(
+      Message request, StreamObserver<PointsOperationResponse> responseObserver, Runnable apply) {
+    handle(
+        request,
+        responseObserver,
+        PointsOperationResponse.newBuilder()
+            .setResult(UpdateResult.newBuilder().setStatus(UpdateStatus.Completed))
+            .build(),
+        apply);
+  }
+
+  private <T extends Message> void handle(
+      Message request, StreamObserver<T> responseObserver, T response, Runnable apply) {
+    requests.add(request);
+    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+    Status failure = null;
+    try {
+      RateLimiter limiter = rateLimiter;
+      if (limiter != null) {
+        limiter.acquire();
+      }
+      if (latencyMs > 0) {
+        Thread.sleep(latencyMs);
+      }
+
+      double roll = ThreadLocalRandom.current().nextDouble();
+      if (roll < resourceExhaustedRate) {
+        fail(Status.Code.RESOURCE_EXHAUSTED);
+        failure = Status.RESOURCE_EXHAUSTED.withDescription("Fake overload");
+      } else if (roll < resourceExhaustedRate + errorRate) {
+        fail(Status.Code.UNAVAILABLE);
+        failure = Status.UNAVAILABLE.withDescription("Fake failure");
+      } else {
+        apply.run();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      failure = Status.CANCELLED;
+    } finally {
+      // Released before responding, so the next request of the client is not counted alongside.
+      inFlight.decrementAndGet();
+    }
+
+    if (failure != null) {
+      responseObserver.onError(failure.asRuntimeException());
+      return;
+    }
+    responseObserver.onNext(response);
+    responseObserver.onCompleted();
+  }
+
+  private class PointsService extends PointsGrpc.PointsImplBase {
+    @Override
+    public void upsert(
+        UpsertPoints request, StreamObserver<PointsOperationResponse> responseObserver) {
+      handle(
+          request,
+          responseObserver,
+          () -> {
+            Set<PointId> collection = collection(request.getCollectionName());
+            for (PointStruct point : request.getPointsList()) {
+              collection.add(point.getId());
+            }
+          });
+    }
+
+    @Override
+    public void delete(
+        DeletePoints request, StreamObserver<PointsOperationResponse> responseObserver) {
+      handle(
+          request,
+          responseObserver,
+          () ->
+              collection(request.getCollectionName())
+                  .removeAll(request.getPoints().getPoints().getIdsList()));
+    }
+
+    // Partial updates leave the points in place, only the requests are recorded.
+    @Override
+    public void updateBatch(
+        UpdateBatchPoints request, StreamObserver<UpdateBatchResponse> responseObserver) {
+      UpdateBatchResponse.Builder response = UpdateBatchResponse.newBuilder();
+      for (int i = 0; i < request.getOperationsCount(); i++) {
+        response.addResult(UpdateResult.newBuilder().setStatus(UpdateStatus.Completed));
+      }
+      handle(request, responseObserver, response.build(), () -> {});
+    }
+  }
+}
@@ -0,0 +1,69 @@
+package io.qdrant.kafka;
+
+import static io.qdrant.client.PointIdFactory.id;
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.grpc.Status;
+import io.qdrant.client.grpc.Points.PointStruct;
+import io.qdrant.client.grpc.Points.PointsUpdateOperation;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** Tests that writes get the same deadline whether they are compressed or not. */
+public class QdrantGrpcTimeoutTest {
+
+  FakeQdrantServer qdrant;
+
+  @BeforeEach
+  void setup() throws Exception {
+    qdrant = new FakeQdrantServer().withLatency(2000);
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    qdrant.close();
+  }
+
+  QdrantGrpc qdrantGrpc(String compression) {
+    Map<String, String> props = new HashMap<>();
+    props.put(QdrantSinkConfig.GRPC_URL, qdrant.getGrpcUrl());
+    props.put(QdrantSinkConfig.GRPC_COMPRESSION, compression);
+    props.put(QdrantSinkConfig.GRPC_COMPRESSION_MIN_BYTES, "0");
+    props.put(QdrantSinkConfig.WRITE_TIMEOUT_MS, "100");
+    return new QdrantGrpc(new QdrantSinkConfig(props));
+  }
+
+  static void assertDeadlineExceeded(Future<?> future) {
+    ExecutionException e = assertThrows(ExecutionException.class, future::get);
+    assertEquals(Status.Code.DEADLINE_EXCEEDED, Status.fromThrowable(e).getCode());
+  }
+
+  static void assertWritesTimeOut(QdrantGrpc qdrantGrpc) throws Exception {
+    try {
+      PointStruct point = PointStruct.newBuilder().setId(id(1)).build();
+      PointsUpdateOperation update = PointsUpdateOperation.getDefaultInstance();
+
+      assertDeadlineExceeded(qdrantGrpc.upsert("collection", List.of(point), null));
+      assertDeadlineExceeded(qdrantGrpc.updateBatch("collection", List.of(update)));
+      assertDeadlineExceeded(qdrantGrpc.delete("collection", List.of(id(1)), null));
+    } finally {
+      qdrantGrpc.close();
+    }
+  }
+
+  @Test
+  public void testUncompressedWritesTimeOut() throws Exception {
+    assertWritesTimeOut(qdrantGrpc("none"));
+  }
+
+  @Test
+  public void testCompressedWritesTimeOut() throws Exception {
+    assertWritesTimeOut(qdrantGrpc("gzip"));
+  }
+}
@@ -0,0 +1,86 @@
+package io.qdrant.kafka;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+/** Builds records shaped like the ones the connector sees in production, from a fixed seed. */
+final class BenchmarkRecords {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private final Random random = new Random(42);
+
+  /** Returns a schemaless record value, as produced by the JsonConverter. */
+  Map<String, Object> record(int dimension) {
+    Map<String, Object> vector = new LinkedHashMap<>();
+    vector.put("dense", denseVector(dimension));
+    vector.put("sparse", sparseVector(dimension, 64));
+
+    Map<String, Object> payload = new LinkedHashMap<>();
+    payload.put("text", text(1024));
+    payload.put("source", "kafka");
+    payload.put("page", random.nextInt(500));
+    payload.put("score", random.nextDouble());
+    payload.put("tags", List.of("alpha", "beta", "gamma"));
+
+    Map<String, Object> record = new LinkedHashMap<>();
+    record.put("collection_name", "benchmark");
+    record.put("id", new UUID(random.nextLong(), random.nextLong()).toString());
+    record.put("vector", vector);
+    record.put("payload", payload);
+    return record;
+  }
+
+  /** Returns the record value as a raw JSON string, as produced by the StringConverter. */
+  String json(int dimension) {
+    try {
+      return MAPPER.writeValueAsString(record(dimension));
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  List<Double> denseVector(int dimension) {
+    List<Double> vector = new ArrayList<>(dimension);
+    for (int i = 0; i < dimension; i++) {
+      vector.add(random.nextGaussian());
+    }
+    return vector;
+  }
+
+  List<List<Double>> multiDenseVector(int rows, int dimension) {
+    List<List<Double>> vector = new ArrayList<>(rows);
+    for (int i = 0; i < rows; i++) {
+      vector.add(denseVector(dimension));
+    }
+    return vector;
+  }
+
+  Map<String, Object> sparseVector(int dimension, int size) {
+    List<Long> indices = new ArrayList<>(size);
+    List<Double> values = new ArrayList<>(size);
+    int step = Math.max(1, dimension / size);
+    for (int i = 0; i < size; i++) {
+      indices.add((long) i * step + random.nextInt(step));
+      values.add(random.nextDouble());
+    }
+    Map<String, Object> vector = new LinkedHashMap<>();
+    vector.put("indices", indices);
+    vector.put("values", values);
+    return vector;
+  }
+
+  private String text(int length) {
+    StringBuilder text = new StringBuilder(length);
+    while (text.length() < length) {
+      text.append("lorem ipsum dolor sit amet ").append(random.nextInt(1000)).append(' ');
+    }
+    return text.substring(0, length);
+  }
+}
@@ -0,0 +1,96 @@
+package io.qdrant.kafka;
+
+import io.qdrant.client.grpc.JsonWithInt.Value;
+import io.qdrant.client.grpc.Points.PointStruct;
+import io.qdrant.client.grpc.Points.Vectors;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Measures the conversion of a single record value into a Qdrant point. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConversionBenchmark {
+
+  @Param({"384", "1536"})
+  int dimension;
+
+  private Map<String, Object> record;
+  private String json;
+  private Value denseVector;
+  private Value sparseVector;
+  private Value namedVectors;
+  private Value multiDenseVector;
+
+  @Setup
+  public void setup() {
+    BenchmarkRecords records = new BenchmarkRecords();
+    record = records.record(dimension);
+    json = records.json(dimension);
+
+    denseVector = ValueMapFactory.toValue(records.denseVector(dimension));
+    sparseVector = ValueMapFactory.toValue(records.sparseVector(dimension, 64));
+    multiDenseVector = ValueMapFactory.toValue(records.multiDenseVector(32, 128));
+
+    Map<String, Object> named = new LinkedHashMap<>();
+    named.put("text", records.denseVector(dimension));
+    named.put("image", records.denseVector(dimension));
+    named.put("keywords", records.sparseVector(dimension, 64));
+    namedVectors = ValueMapFactory.toValue(named);
+  }
+
+  @Benchmark
+  public Map<String, Value> valueMap() {
+    return ValueMapFactory.valueMap(record);
+  }
+
+  @Benchmark
+  public Map<String, Value> parse() throws Exception {
+    return ValueMapFactory.parse(json);
+  }
+
+  @Benchmark
+  public Vectors denseVector() {
+    return VectorsFactory.vectors(denseVector);
+  }
+
+  @Benchmark
+  public Vectors sparseVector() {
+    return VectorsFactory.vectors(sparseVector);
+  }
+
+  @Benchmark
+  public Vectors namedVectors() {
+    return VectorsFactory.vectors(namedVectors);
+  }
+
+  @Benchmark
+  public Vectors multiDenseVector() {
+    return VectorsFactory.vectors(multiDenseVector);
+  }
+
+  @Benchmark
+  public PointStruct pointStruct() throws Exception {
+    return new ValueExtractor(record).getPointStruct();
+  }
+
+  @Benchmark
+  public PointStruct jsonPointStruct() throws Exception {
+    return new JsonPointExtractor(json).getPointStruct();
+  }
+}
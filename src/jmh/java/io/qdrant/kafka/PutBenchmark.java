@@ -0,0 +1,138 @@
+package io.qdrant.kafka;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.qdrant.client.QdrantClient;
+import io.qdrant.client.grpc.Common.PointId;
+import io.qdrant.client.grpc.Points.PointStruct;
+import io.qdrant.client.grpc.Points.ShardKeySelector;
+import io.qdrant.client.grpc.Points.UpdateResult;
+import io.qdrant.client.grpc.Points.UpdateStatus;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.metrics.PluginMetrics;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.apache.kafka.connect.sink.SinkTaskContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Measures {@link QdrantSinkTask#put} for a batch of records, against a no-op Qdrant client. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PutBenchmark {
+
+  @Param({"map", "json"})
+  String format;
+
+  @Param({"500"})
+  int batchSize;
+
+  @Param({"768"})
+  int dimension;
+
+  private QdrantSinkTask task;
+  private List<SinkRecord> records;
+
+  @Setup
+  public void setup() {
+    BenchmarkRecords values = new BenchmarkRecords();
+    records = new ArrayList<>(batchSize);
+    for (int i = 0; i < batchSize; i++) {
+      Object value = format.equals("json") ? values.json(dimension) : values.record(dimension);
+      records.add(new SinkRecord("benchmark", 0, null, null, null, value, i));
+    }
+
+    task = new QdrantSinkTask();
+    task.initialize(new NoopSinkTaskContext());
+    task.start(Map.of(), new NoopQdrantGrpc());
+  }
+
+  @TearDown
+  public void tearDown() {
+    task.stop();
+  }
+
+  @Benchmark
+  public void put() {
+    task.put(records);
+  }
+
+  /** Acknowledges every write right away. */
+  private static class NoopQdrantGrpc extends QdrantGrpc {
+    private static final ListenableFuture<UpdateResult> COMPLETED =
+        Futures.immediateFuture(
+            UpdateResult.newBuilder().setStatus(UpdateStatus.Completed).build());
+
+    NoopQdrantGrpc() {
+      super((QdrantClient) null);
+    }
+
+    @Override
+    public ListenableFuture<UpdateResult> upsert(
+        String collectionName, List<PointStruct> points, ShardKeySelector shardKeySelector) {
+      return COMPLETED;
+    }
+
+    @Override
+    public ListenableFuture<UpdateResult> delete(
+        String collectionName, List<PointId> pointIds, ShardKeySelector shardKeySelector) {
+      return COMPLETED;
+    }
+
+    @Override
+    public void close() {}
+  }
+
+  private static class NoopSinkTaskContext implements SinkTaskContext {
+    @Override
+    public Map<String, String> configs() {
+      return Map.of();
+    }
+
+    @Override
+    public void offset(Map<TopicPartition, Long> offsets) {}
+
+    @Override
+    public void offset(TopicPartition tp, long offset) {}
+
+    @Override
+    public void timeout(long timeoutMs) {}
+
+    @Override
+    public Set<TopicPartition> assignment() {
+      return Set.of(new TopicPartition("benchmark", 0));
+    }
+
+    @Override
+    public void pause(TopicPartition... partitions) {}
+
+    @Override
+    public void resume(TopicPartition... partitions) {}
+
+    @Override
+    public void requestCommit() {}
+
+    @Override
+    public PluginMetrics pluginMetrics() {
+      return null;
+    }
+  }
+}
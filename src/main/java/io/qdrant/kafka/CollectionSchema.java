@@ -0,0 +1,88 @@
+package io.qdrant.kafka;
+
+import io.qdrant.client.grpc.Collections.CollectionInfo;
+import io.qdrant.client.grpc.Collections.CollectionParams;
+import io.qdrant.client.grpc.Collections.VectorParams;
+import io.qdrant.client.grpc.Collections.VectorsConfig;
+import io.qdrant.client.grpc.Points.Vector;
+import io.qdrant.client.grpc.Points.Vectors;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import org.apache.kafka.connect.errors.DataException;
+
+/**
+ * The vectors a collection accepts: the names and sizes of its dense vectors, whether they are
+ * multi-vectors, and the names of its sparse vectors. Points are checked against it before they
+ * are sent, so that a record with a wrong vector fails on its own instead of failing its request.
+ */
+final class CollectionSchema {
+
+  // The name of the vector of collections with a single, unnamed vector.
+  private static final String DEFAULT_VECTOR = "";
+
+  private final String collectionName;
+  private final Map<String, VectorParams> dense;
+  private final Set<String> sparse;
+
+  CollectionSchema(String collectionName, Map<String, VectorParams> dense, Set<String> sparse) {
+    this.collectionName = collectionName;
+    this.dense = dense;
+    this.sparse = sparse;
+  }
+
+  static CollectionSchema of(String collectionName, CollectionInfo info) {
+    CollectionParams params = info.getConfig().getParams();
+    Map<String, VectorParams> dense = new HashMap<>();
+    VectorsConfig vectorsConfig = params.getVectorsConfig();
+    if (vectorsConfig.hasParams()) {
+      dense.put(DEFAULT_VECTOR, vectorsConfig.getParams());
+    } else if (vectorsConfig.hasParamsMap()) {
+      dense.putAll(vectorsConfig.getParamsMap().getMapMap());
+    }
+    Set<String> sparse = Set.copyOf(params.getSparseVectorsConfig().getMapMap().keySet());
+    return new CollectionSchema(collectionName, dense, sparse);
+  }
+
+  /** Checks that the collection has every vector of the point, in the right shape. */
+  void validate(Vectors vectors) throws DataException {
+    if (vectors.hasVector()) {
+      validate(DEFAULT_VECTOR, vectors.getVector());
+      return;
+    }
+    vectors.getVectors().getVectorsMap().forEach(this::validate);
+  }
+
+  private void validate(String name, Vector vector) throws DataException {
+    String label = name.isEmpty() ? "The unnamed vector" : "Vector '" + name + "'";
+    if (sparse.contains(name)) {
+      if (!vector.hasIndices()) {
+        throw invalid(label + " must be sparse");
+      }
+      return;
+    }
+    VectorParams params = dense.get(name);
+    if (params == null) {
+      throw invalid(label + " is not configured");
+    }
+    if (vector.hasIndices()) {
+      throw invalid(label + " must be dense");
+    }
+    boolean multi = vector.hasVectorsCount();
+    if (multi != params.hasMultivectorConfig()) {
+      throw invalid(label + (multi ? " must not be a multi-vector" : " must be a multi-vector"));
+    }
+    int size = vector.getDataCount();
+    if (multi && vector.getVectorsCount() > 0) {
+      size /= vector.getVectorsCount();
+    }
+    if (size != params.getSize()) {
+      throw invalid(
+          String.format("%s must have %d dimensions, got %d", label, params.getSize(), size));
+    }
+  }
+
+  private DataException invalid(String message) {
+    return new DataException(String.format("%s in collection '%s'.", message, collectionName));
+  }
+}
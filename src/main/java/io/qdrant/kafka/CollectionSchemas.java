@@ -0,0 +1,143 @@
+package io.qdrant.kafka;
+
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The vector schemas of the collections written to, fetched from Qdrant on first use and fetched
+ * again once they are older than the TTL, or after a write to the collection failed.
+ *
+ * <p>Fetching a schema holds up conversion at most once: only the first lookup waits for the
+ * fetch, and points of the collection are not validated while it is still pending. Points of a
+ * collection whose schema cannot be fetched are not validated until the schema is fetched again,
+ * {@value #ERROR_TTL_MS} ms later.
+ */
+final class CollectionSchemas {
+
+  private static final Logger log = LoggerFactory.getLogger(CollectionSchemas.class);
+
+  static final CollectionSchemas DISABLED = new CollectionSchemas(null, 0, 0, () -> 0);
+
+  static final long ERROR_TTL_MS = 10_000;
+  private static final long FETCH_TIMEOUT_MS = 5_000;
+
+  private final QdrantGrpc qdrantGrpc;
+  private final long ttlMs;
+  private final Duration fetchTimeout;
+  private final LongSupplier clock;
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+  CollectionSchemas(QdrantGrpc qdrantGrpc, long ttlMs, long fetchTimeoutMs, LongSupplier clock) {
+    this.qdrantGrpc = qdrantGrpc;
+    this.ttlMs = ttlMs;
+    this.fetchTimeout = Duration.ofMillis(fetchTimeoutMs);
+    this.clock = clock;
+  }
+
+  static CollectionSchemas from(QdrantSinkConfig config, QdrantGrpc qdrantGrpc) {
+    if (!config.isVectorValidation()) {
+      return DISABLED;
+    }
+    return new CollectionSchemas(
+        qdrantGrpc,
+        config.getVectorValidationTtlMs(),
+        FETCH_TIMEOUT_MS,
+        System::currentTimeMillis);
+  }
+
+  boolean isEnabled() {
+    return qdrantGrpc != null;
+  }
+
+  /** Returns the schema of the collection, or null if it is not fetched. */
+  CollectionSchema get(String collectionName) {
+    long now = clock.getAsLong();
+    Entry entry =
+        entries.compute(
+            collectionName,
+            (name, current) ->
+                current == null || current.isExpired(now) ? fetch(name, now) : current);
+    return entry.await(collectionName);
+  }
+
+  /** Drops the schema of the collection, so that it is fetched again on next use. */
+  void invalidate(String collectionName) {
+    if (isEnabled()) {
+      entries.remove(collectionName);
+    }
+  }
+
+  private Entry fetch(String collectionName, long now) {
+    ListenableFuture<CollectionSchema> schema =
+        Futures.transform(
+            qdrantGrpc.getCollectionInfo(collectionName, fetchTimeout),
+            info -> CollectionSchema.of(collectionName, info),
+            directExecutor());
+    Entry entry = new Entry(schema, now + ttlMs);
+    Futures.addCallback(
+        schema,
+        new FutureCallback<CollectionSchema>() {
+          @Override
+          public void onSuccess(CollectionSchema result) {}
+
+          @Override
+          public void onFailure(Throwable t) {
+            log.warn(
+                "Failed to fetch the schema of collection '{}', vectors are not validated.",
+                collectionName,
+                t);
+            entry.expiresAt = Math.min(entry.expiresAt, clock.getAsLong() + ERROR_TTL_MS);
+          }
+        },
+        directExecutor());
+    return entry;
+  }
+
+  private final class Entry {
+    private final ListenableFuture<CollectionSchema> schema;
+    private final AtomicBoolean awaited = new AtomicBoolean();
+    private volatile long expiresAt;
+
+    Entry(ListenableFuture<CollectionSchema> schema, long expiresAt) {
+      this.schema = schema;
+      this.expiresAt = expiresAt;
+    }
+
+    boolean isExpired(long now) {
+      return now >= expiresAt;
+    }
+
+    CollectionSchema await(String collectionName) {
+      // Only the first lookup waits for a pending fetch, the fetch has a deadline of its own.
+      if (!schema.isDone() && awaited.getAndSet(true)) {
+        return null;
+      }
+      try {
+        return schema.get(fetchTimeout.toMillis(), TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return null;
+      } catch (ExecutionException e) {
+        return null;
+      } catch (TimeoutException e) {
+        log.warn(
+            "Timed out fetching the schema of collection '{}', vectors are not validated.",
+            collectionName);
+        return null;
+      }
+    }
+  }
+}
@@ -0,0 +1,172 @@
+package io.qdrant.kafka;
+
+import static io.qdrant.kafka.ValueExtractor.COLLECTION_NAME_KEY;
+import static io.qdrant.kafka.ValueExtractor.ID_KEY;
+import static io.qdrant.kafka.ValueExtractor.PAYLOAD_KEY;
+import static io.qdrant.kafka.ValueExtractor.VECTOR_KEY;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import io.qdrant.client.grpc.Common.PointId;
+import io.qdrant.client.grpc.JsonWithInt.Value;
+import io.qdrant.client.grpc.Points.NamedVectors;
+import io.qdrant.client.grpc.Points.PointStruct;
+import io.qdrant.client.grpc.Points.Vectors;
+import java.io.IOException;
+import java.util.Map;
+import org.apache.kafka.connect.errors.DataException;
+
+/**
+ * Reads a record serialized as JSON, such as the value of the ByteArrayConverter or the
+ * StringConverter, straight into a {@link PointStruct}. The record is read with a streaming
+ * parser, vectors go directly into float arrays and the payload into the point's payload map.
+ */
+class JsonPointExtractor implements PointExtractor {
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  private final String collectionNameOverride;
+  private final VectorEncoding vectorEncoding;
+  private final PayloadProjections payloadProjections;
+  private final PointStruct.Builder pointBuilder = PointStruct.newBuilder();
+  private Value idValue;
+  private Value collectionNameValue;
+  // Whether the payload was read before its collection was known, and is still to be projected.
+  private boolean projectPayload;
+
+  JsonPointExtractor(Object object) throws JsonProcessingException {
+    this(object, null);
+  }
+
+  JsonPointExtractor(Object object, String collectionNameOverride) throws JsonProcessingException {
+    this(object, collectionNameOverride, VectorEncoding.FLOAT32, PayloadProjections.NONE);
+  }
+
+  JsonPointExtractor(
+      Object object,
+      String collectionNameOverride,
+      VectorEncoding vectorEncoding,
+      PayloadProjections payloadProjections)
+      throws JsonProcessingException {
+    this.collectionNameOverride = collectionNameOverride;
+    this.vectorEncoding = vectorEncoding;
+    this.payloadProjections = payloadProjections;
+    try (JsonParser parser = createParser(object)) {
+      parse(parser);
+    } catch (JsonProcessingException e) {
+      throw e;
+    } catch (IOException e) {
+      throw new DataException("Could not read JSON record", e);
+    }
+  }
+
+  private static JsonParser createParser(Object object) throws IOException {
+    if (object instanceof byte[]) {
+      return JSON_FACTORY.createParser((byte[]) object);
+    }
+    return JSON_FACTORY.createParser((String) object);
+  }
+
+  private void parse(JsonParser parser) throws IOException {
+    if (parser.nextToken() != JsonToken.START_OBJECT) {
+      throw new DataException("Record must be a JSON object");
+    }
+
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.currentName();
+      JsonToken token = parser.nextToken();
+      switch (field) {
+        case ID_KEY:
+          idValue = ValueMapFactory.toValue(parser);
+          break;
+
+        case COLLECTION_NAME_KEY:
+          collectionNameValue = ValueMapFactory.toValue(parser);
+          break;
+
+        case VECTOR_KEY:
+          if (token != JsonToken.VALUE_NULL) {
+            pointBuilder.setVectors(VectorsFactory.vectors(parser, vectorEncoding));
+          }
+          break;
+
+        case PAYLOAD_KEY:
+          readPayload(parser);
+          break;
+
+        default:
+          parser.skipChildren();
+      }
+    }
+  }
+
+  private void readPayload(JsonParser parser) throws IOException {
+    switch (parser.currentToken()) {
+      case START_OBJECT:
+        PayloadProjection projection = knownProjection();
+        projectPayload = projection == null;
+        if (projection == null) {
+          projection = PayloadProjection.ALL;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+          String key = parser.currentName();
+          parser.nextToken();
+          PayloadProjection field = projection.field(key);
+          if (field == null) {
+            parser.skipChildren();
+          } else {
+            pointBuilder.putPayload(key, field.project(ValueMapFactory.toValue(parser)));
+          }
+        }
+        break;
+
+      case VALUE_NULL:
+        break;
+
+      default:
+        throw new DataException("Payload must be an object.");
+    }
+  }
+
+  // Returns the payload projection if the collection is known, so that dropped fields are skipped.
+  private PayloadProjection knownProjection() {
+    boolean known =
+        (collectionNameOverride != null && !collectionNameOverride.isEmpty())
+            || (collectionNameValue != null && collectionNameValue.hasStringValue());
+    return payloadProjections == PayloadProjections.NONE || known
+        ? payloadProjections.get(this)
+        : null;
+  }
+
+  @Override
+  public String getCollectionName() {
+    return ValueExtractor.collectionName(collectionNameValue, collectionNameOverride);
+  }
+
+  @Override
+  public PointId getPointId() {
+    return ValueExtractor.pointId(idValue);
+  }
+
+  @Override
+  public PointStruct getPointStruct() {
+    if (!pointBuilder.hasVectors()) {
+      pointBuilder.setVectors(
+          Vectors.newBuilder().setVectors(NamedVectors.getDefaultInstance()).build());
+    }
+    if (projectPayload) {
+      Map<String, Value> payload =
+          payloadProjections.get(this).project(pointBuilder.getPayloadMap());
+      pointBuilder.clearPayload().putAllPayload(payload);
+      projectPayload = false;
+    }
+    return pointBuilder.setId(getPointId()).build();
+  }
+
+  @Override
+  public void validateOptions() {
+    ValueExtractor.validateRequired(COLLECTION_NAME_KEY, collectionNameValue);
+    ValueExtractor.validateRequired(ID_KEY, idValue);
+  }
+}
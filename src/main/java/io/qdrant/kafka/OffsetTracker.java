@@ -0,0 +1,63 @@
+package io.qdrant.kafka;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.connect.sink.SinkRecord;
+
+/**
+ * Tracks the offsets of records whose writes have not been acknowledged by Qdrant yet, so that
+ * only acknowledged offsets are committed.
+ */
+class OffsetTracker {
+
+  private final Map<TopicPartition, TreeSet<Long>> pending = new HashMap<>();
+
+  synchronized void track(Collection<SinkRecord> records) {
+    for (SinkRecord record : records) {
+      pending.computeIfAbsent(partition(record), k -> new TreeSet<>()).add(offset(record));
+    }
+  }
+
+  synchronized void complete(Collection<SinkRecord> records) {
+    for (SinkRecord record : records) {
+      TreeSet<Long> offsets = pending.get(partition(record));
+      if (offsets != null) {
+        offsets.remove(offset(record));
+      }
+    }
+  }
+
+  /**
+   * Returns the offsets that are safe to commit. A partition with pending writes is held back at
+   * its lowest pending offset, every other partition commits the offset consumed by the framework.
+   */
+  synchronized Map<TopicPartition, OffsetAndMetadata> committableOffsets(
+      Map<TopicPartition, OffsetAndMetadata> currentOffsets) {
+    Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>(currentOffsets);
+    currentOffsets.forEach(
+        (partition, current) -> {
+          TreeSet<Long> partitionPending = pending.get(partition);
+          if (partitionPending != null && !partitionPending.isEmpty()) {
+            offsets.put(partition, new OffsetAndMetadata(partitionPending.first()));
+          }
+        });
+    return offsets;
+  }
+
+  synchronized void remove(Collection<TopicPartition> partitions) {
+    partitions.forEach(pending::remove);
+  }
+
+  // Offsets are committed against the original topic partition, before any SMT renames.
+  static TopicPartition partition(SinkRecord record) {
+    return new TopicPartition(record.originalTopic(), record.originalKafkaPartition());
+  }
+
+  private static long offset(SinkRecord record) {
+    return record.originalKafkaOffset();
+  }
+}
@@ -0,0 +1,52 @@
+package io.qdrant.kafka;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ClientStreamTracer;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import java.util.concurrent.atomic.LongAdder;
+
+/** Counts the bytes of the requests sent over a channel, before and after compression. */
+class OutboundBytes implements ClientInterceptor {
+
+  private final LongAdder wireBytes = new LongAdder();
+  private final LongAdder uncompressedBytes = new LongAdder();
+
+  private final ClientStreamTracer.Factory tracerFactory =
+      new ClientStreamTracer.Factory() {
+        @Override
+        public ClientStreamTracer newClientStreamTracer(
+            ClientStreamTracer.StreamInfo info, Metadata headers) {
+          return new ClientStreamTracer() {
+            @Override
+            public void outboundWireSize(long bytes) {
+              wireBytes.add(bytes);
+            }
+
+            @Override
+            public void outboundUncompressedSize(long bytes) {
+              uncompressedBytes.add(bytes);
+            }
+          };
+        }
+      };
+
+  @Override
+  public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(
+      MethodDescriptor<ReqT, RespT> method, CallOptions callOptions, Channel next) {
+    return next.newCall(method, callOptions.withStreamTracerFactory(tracerFactory));
+  }
+
+  /** Returns the number of message bytes sent, after compression. */
+  long getWireBytes() {
+    return wireBytes.sum();
+  }
+
+  /** Returns the number of message bytes sent, before compression. */
+  long getUncompressedBytes() {
+    return uncompressedBytes.sum();
+  }
+}
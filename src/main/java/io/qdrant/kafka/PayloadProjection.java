@@ -0,0 +1,145 @@
+package io.qdrant.kafka;
+
+import io.qdrant.client.grpc.JsonWithInt.ListValue;
+import io.qdrant.client.grpc.JsonWithInt.Struct;
+import io.qdrant.client.grpc.JsonWithInt.Value;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The payload fields to keep, given as dotted paths of fields to include and to exclude. Without
+ * include paths every field is kept; exclude paths then drop fields from what is kept. A path
+ * through a list applies to the objects in the list.
+ *
+ * <p>Fields are checked one level at a time with {@link #field(String)}, so that the extractors
+ * can skip dropped fields before converting them.
+ */
+final class PayloadProjection {
+
+  static final PayloadProjection ALL = new PayloadProjection(null, new Node(), Set.of());
+
+  // Null when every field is included. A whole node includes or excludes the whole field.
+  private final Node included;
+  private final Node excluded;
+  // Fields kept whole whatever the paths, such as the fields the connector reads itself.
+  private final Set<String> kept;
+
+  private PayloadProjection(Node included, Node excluded, Set<String> kept) {
+    this.included = included;
+    this.excluded = excluded;
+    this.kept = kept;
+  }
+
+  static PayloadProjection of(Collection<String> includes, Collection<String> excludes) {
+    Node included = Node.of(includes);
+    Node excluded = Node.of(excludes);
+    if (included.children.isEmpty() && excluded.children.isEmpty()) {
+      return ALL;
+    }
+    return new PayloadProjection(
+        included.children.isEmpty() ? null : included, excluded, Set.of());
+  }
+
+  boolean isAll() {
+    return this == ALL;
+  }
+
+  /** Returns the projection that also keeps the fields with the given names whole. */
+  PayloadProjection keeping(Collection<String> names) {
+    if (isAll() || kept.containsAll(names)) {
+      return this;
+    }
+    Set<String> fields = new HashSet<>(kept);
+    fields.addAll(names);
+    return new PayloadProjection(included, excluded, Set.copyOf(fields));
+  }
+
+  /**
+   * Returns the projection of the value of the field, {@link #ALL} if it is kept whole, or null if
+   * it is dropped.
+   */
+  PayloadProjection field(String name) {
+    if (kept.contains(name)) {
+      return ALL;
+    }
+    Node include = null;
+    if (included != null) {
+      include = included.children.get(name);
+      if (include == null) {
+        return null;
+      }
+      if (include.whole) {
+        include = null;
+      }
+    }
+    Node exclude = excluded.children.get(name);
+    if (exclude != null && exclude.whole) {
+      return null;
+    }
+    if (include == null && exclude == null) {
+      return ALL;
+    }
+    return new PayloadProjection(include, exclude == null ? new Node() : exclude, Set.of());
+  }
+
+  /** Returns the projection of the payload fields. */
+  Map<String, Value> project(Map<String, Value> fields) {
+    if (isAll()) {
+      return fields;
+    }
+    Map<String, Value> projected = new LinkedHashMap<>();
+    fields.forEach(
+        (name, value) -> {
+          PayloadProjection projection = field(name);
+          if (projection != null) {
+            projected.put(name, projection.project(value));
+          }
+        });
+    return projected;
+  }
+
+  /** Returns the projection of the value of a field, whose own fields are projected. */
+  Value project(Value value) {
+    if (isAll()) {
+      return value;
+    }
+    switch (value.getKindCase()) {
+      case STRUCT_VALUE:
+        Map<String, Value> fields = project(value.getStructValue().getFieldsMap());
+        return Value.newBuilder().setStructValue(Struct.newBuilder().putAllFields(fields)).build();
+      case LIST_VALUE:
+        ListValue.Builder list = ListValue.newBuilder();
+        for (Value element : value.getListValue().getValuesList()) {
+          list.addValues(project(element));
+        }
+        return Value.newBuilder().setListValue(list).build();
+      default:
+        return value;
+    }
+  }
+
+  /** A tree of field paths. */
+  private static final class Node {
+    private final Map<String, Node> children = new HashMap<>();
+    private boolean whole;
+
+    private static Node of(Collection<String> paths) {
+      Node root = new Node();
+      for (String path : paths) {
+        if (path.isBlank()) {
+          continue;
+        }
+        Node node = root;
+        for (String name : path.trim().split("\\.")) {
+          node = node.children.computeIfAbsent(name, k -> new Node());
+        }
+        node.whole = true;
+      }
+      return root;
+    }
+  }
+}
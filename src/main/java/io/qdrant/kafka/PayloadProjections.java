@@ -0,0 +1,93 @@
+package io.qdrant.kafka;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.kafka.common.config.ConfigDef;
+
+/**
+ * The payload projections of the connector, set with {@code qdrant.payload.include} and {@code
+ * qdrant.payload.exclude} and overridden per collection with {@code
+ * qdrant.payload.include.<collection>} and {@code qdrant.payload.exclude.<collection>}.
+ */
+final class PayloadProjections {
+
+  static final PayloadProjections NONE = new PayloadProjections(PayloadProjection.ALL, Map.of());
+
+  private final PayloadProjection projection;
+  private final Map<String, PayloadProjection> collections;
+
+  private PayloadProjections(
+      PayloadProjection projection, Map<String, PayloadProjection> collections) {
+    this.projection = projection;
+    this.collections = collections;
+  }
+
+  static PayloadProjections from(QdrantSinkConfig config) {
+    List<String> includes = config.getPayloadInclude();
+    List<String> excludes = config.getPayloadExclude();
+    Map<String, List<String>> collectionIncludes =
+        paths(config, QdrantSinkConfig.PAYLOAD_INCLUDE + ".");
+    Map<String, List<String>> collectionExcludes =
+        paths(config, QdrantSinkConfig.PAYLOAD_EXCLUDE + ".");
+
+    Set<String> collectionNames = new HashSet<>(collectionIncludes.keySet());
+    collectionNames.addAll(collectionExcludes.keySet());
+    Map<String, PayloadProjection> collections = new HashMap<>();
+    for (String collectionName : collectionNames) {
+      collections.put(
+          collectionName,
+          PayloadProjection.of(
+              collectionIncludes.getOrDefault(collectionName, includes),
+              collectionExcludes.getOrDefault(collectionName, excludes)));
+    }
+
+    PayloadProjection projection = PayloadProjection.of(includes, excludes);
+    if (projection.isAll() && collections.isEmpty()) {
+      return NONE;
+    }
+    return new PayloadProjections(projection, collections);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<String, List<String>> paths(QdrantSinkConfig config, String prefix) {
+    Map<String, List<String>> paths = new HashMap<>();
+    config
+        .originalsWithPrefix(prefix)
+        .forEach(
+            (collectionName, value) ->
+                paths.put(
+                    collectionName,
+                    (List<String>)
+                        ConfigDef.parseType(prefix + collectionName, value, ConfigDef.Type.LIST)));
+    return paths;
+  }
+
+  /**
+   * Returns the projections that also keep the top-level fields with the given names whole, so that
+   * the connector can read them whatever the include and exclude paths.
+   */
+  PayloadProjections keeping(Collection<String> names) {
+    if (this == NONE || names.isEmpty()) {
+      return this;
+    }
+    Map<String, PayloadProjection> keeping = new HashMap<>();
+    collections.forEach((name, projection) -> keeping.put(name, projection.keeping(names)));
+    return new PayloadProjections(projection.keeping(names), keeping);
+  }
+
+  PayloadProjection get(String collectionName) {
+    return collections.getOrDefault(collectionName, projection);
+  }
+
+  /**
+   * Returns the projection of the payload of the point. The collection of the point is only looked
+   * up if some projection is configured.
+   */
+  PayloadProjection get(PointExtractor extractor) {
+    return this == NONE ? PayloadProjection.ALL : get(extractor.getCollectionName());
+  }
+}
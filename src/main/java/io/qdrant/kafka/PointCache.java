@@ -0,0 +1,225 @@
+package io.qdrant.kafka;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.protobuf.CodedOutputStream;
+import io.qdrant.client.grpc.Collections.ShardKey;
+import io.qdrant.client.grpc.Common.PointId;
+import io.qdrant.client.grpc.Points.PointStruct;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A bounded cache of the content hash of points in Qdrant, so that upserts of unchanged points are
+ * acknowledged without a request, as when a compacted topic is replayed.
+ *
+ * <p>Points are keyed by a 64-bit hash of their collection and id. Keys and content
+ * hashes are held in primitive arrays, as a set-associative cache with {@value #WAYS} entries per
+ * set and least recently used eviction within a set, so millions of points take 25 bytes each.
+ *
+ * <p>The content of an upsert is recorded as pending when it is batched and only confirmed once
+ * Qdrant acknowledges it, so a point is never skipped while an earlier write to it can still fail.
+ * Each pending entry gets a sequence number that its write carries, so that the acknowledgement of
+ * an earlier write of the same content, made before a delete, cannot confirm a later one.
+ * Deletes and partial updates drop the point from the cache, and the whole cache is cleared when
+ * partitions are revoked, as another task may write their points in the meantime.
+ */
+final class PointCache {
+
+  static final PointCache DISABLED = new PointCache(0);
+
+  private static final int WAYS = 4;
+  private static final HashFunction HASH = Hashing.farmHashFingerprint64();
+
+  private final long[] keys;
+  private final long[] hashes;
+  private final long[] sequences;
+  private final boolean[] confirmed;
+  private final int mask;
+  private long lastSequence;
+
+  PointCache(int size) {
+    int sets = 1;
+    while (sets * WAYS < size && sets < (1 << 28)) {
+      sets <<= 1;
+    }
+    int slots = size > 0 ? sets * WAYS : 0;
+    this.keys = new long[slots];
+    this.hashes = new long[slots];
+    this.sequences = new long[slots];
+    this.confirmed = new boolean[slots];
+    this.mask = sets - 1;
+  }
+
+  static PointCache from(QdrantSinkConfig config) {
+    return new PointCache(config.getPointCacheSize());
+  }
+
+  boolean isEnabled() {
+    return keys.length > 0;
+  }
+
+  /**
+   * Returns the cache key of the point, never 0, which marks an empty entry. The shard key is left
+   * out, so that a delete drops the point whatever shard key its upsert had.
+   */
+  static long key(String collectionName, PointId pointId) {
+    long key =
+        HASH.newHasher()
+            .putString(collectionName, StandardCharsets.UTF_8)
+            .putBytes(pointId.toByteArray())
+            .hash()
+            .asLong();
+    return key == 0 ? 1 : key;
+  }
+
+  /**
+   * Returns the hash of the id, payload and vectors of the point and of its shard key, never 0.
+   * Payload maps are serialized in key order, so equal points hash equally whatever the order of
+   * their fields.
+   */
+  static long contentHash(PointStruct point, ShardKey shardKey) {
+    byte[] bytes = new byte[point.getSerializedSize()];
+    CodedOutputStream output = CodedOutputStream.newInstance(bytes);
+    output.useDeterministicSerialization();
+    try {
+      point.writeTo(output);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    Hasher hasher = HASH.newHasher().putBytes(bytes);
+    if (shardKey != null) {
+      hasher.putBytes(shardKey.toByteArray());
+    }
+    long hash = hasher.hash().asLong();
+    return hash == 0 ? 1 : hash;
+  }
+
+  /** Returns whether Qdrant acknowledged the content for the point, and marks it recently used. */
+  synchronized boolean isUnchanged(long key, long hash) {
+    int slot = find(key);
+    if (slot < 0 || !confirmed[slot] || hashes[slot] != hash) {
+      return false;
+    }
+    moveToFront(slot, key, hash, sequences[slot], true);
+    return true;
+  }
+
+  /**
+   * Records the content of an upsert of the point that is not acknowledged yet. Returns the
+   * sequence number of the entry, never 0, which its write confirms or discards it with.
+   */
+  synchronized long pending(long key, long hash) {
+    int slot = find(key);
+    moveToFront(slot < 0 ? set(key) + WAYS - 1 : slot, key, hash, ++lastSequence, false);
+    return lastSequence;
+  }
+
+  /** Confirms the content of the point, unless a later write to it was recorded since. */
+  synchronized void confirm(long key, long hash, long sequence) {
+    int slot = find(key);
+    if (slot >= 0 && hashes[slot] == hash && sequences[slot] == sequence) {
+      confirmed[slot] = true;
+    }
+  }
+
+  /** Drops the point if its entry is still the one of the given write, as that write failed. */
+  synchronized void discard(long key, long hash, long sequence) {
+    int slot = find(key);
+    if (slot >= 0 && hashes[slot] == hash && sequences[slot] == sequence) {
+      remove(slot);
+    }
+  }
+
+  /** Drops the point, whose content is unknown after a delete or a partial update. */
+  synchronized void invalidate(long key) {
+    int slot = find(key);
+    if (slot >= 0) {
+      remove(slot);
+    }
+  }
+
+  /** Drops every point. */
+  synchronized void clear() {
+    Arrays.fill(keys, 0);
+    Arrays.fill(hashes, 0);
+    Arrays.fill(sequences, 0);
+    Arrays.fill(confirmed, false);
+  }
+
+  /** Confirms the upserts of the request, which Qdrant acknowledged. */
+  void written(WriteRequest request) {
+    if (!isEnabled() || request.getOperation() != WriteRequest.Operation.UPSERT) {
+      return;
+    }
+    for (PointWrite write : request.getWrites()) {
+      if (write.getContentHash() != 0) {
+        confirm(key(request, write), write.getContentHash(), write.getCacheSequence());
+      }
+    }
+  }
+
+  /** Drops the upserts of the request, which failed. */
+  void failed(WriteRequest request) {
+    if (!isEnabled() || request.getOperation() != WriteRequest.Operation.UPSERT) {
+      return;
+    }
+    for (PointWrite write : request.getWrites()) {
+      if (write.getContentHash() != 0) {
+        discard(key(request, write), write.getContentHash(), write.getCacheSequence());
+      }
+    }
+  }
+
+  private static long key(WriteRequest request, PointWrite write) {
+    return key(request.getCollectionName(), write.getPointId());
+  }
+
+  private int set(long key) {
+    // The key is already a hash, its high bits are folded into the set index.
+    return (int) ((key ^ (key >>> 32)) & mask) * WAYS;
+  }
+
+  private int find(long key) {
+    int set = set(key);
+    for (int slot = set; slot < set + WAYS; slot++) {
+      if (keys[slot] == key) {
+        return slot;
+      }
+    }
+    return -1;
+  }
+
+  // Shifts the entries before the slot back by one, evicting the slot, and puts the entry first.
+  private void moveToFront(int slot, long key, long hash, long sequence, boolean isConfirmed) {
+    int first = set(key);
+    for (int i = slot; i > first; i--) {
+      keys[i] = keys[i - 1];
+      hashes[i] = hashes[i - 1];
+      sequences[i] = sequences[i - 1];
+      confirmed[i] = confirmed[i - 1];
+    }
+    keys[first] = key;
+    hashes[first] = hash;
+    sequences[first] = sequence;
+    confirmed[first] = isConfirmed;
+  }
+
+  // Shifts the entries after the slot forward by one and clears the last entry of the set.
+  private void remove(int slot) {
+    int last = slot - (slot % WAYS) + WAYS - 1;
+    for (int i = slot; i < last; i++) {
+      keys[i] = keys[i + 1];
+      hashes[i] = hashes[i + 1];
+      sequences[i] = sequences[i + 1];
+      confirmed[i] = confirmed[i + 1];
+    }
+    keys[last] = 0;
+    hashes[last] = 0;
+    sequences[last] = 0;
+    confirmed[last] = false;
+  }
+}
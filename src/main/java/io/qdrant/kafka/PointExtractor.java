@@ -0,0 +1,51 @@
+package io.qdrant.kafka;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.google.protobuf.InvalidProtocolBufferException;
+import io.qdrant.client.grpc.Common.PointId;
+import io.qdrant.client.grpc.Points.PointStruct;
+import org.apache.kafka.connect.data.Struct;
+
+/** Extracts the target collection and the Qdrant point from a record key or value. */
+interface PointExtractor {
+
+  /**
+   * Returns the extractor for the given key or value. Raw JSON, as produced by the
+   * ByteArrayConverter or the StringConverter, is read with a streaming parser; Structs of
+   * schema-aware converters go through a plan compiled for their schema; any other value is
+   * converted through {@link ValueExtractor}.
+   */
+  static PointExtractor of(Object object, String collectionNameOverride)
+      throws InvalidProtocolBufferException, JsonProcessingException {
+    return of(object, collectionNameOverride, VectorEncoding.FLOAT32, PayloadProjections.NONE);
+  }
+
+  /**
+   * Returns the extractor for the given key or value, reading binary vectors in the encoding and
+   * keeping the payload fields of the projections.
+   */
+  static PointExtractor of(
+      Object object,
+      String collectionNameOverride,
+      VectorEncoding vectorEncoding,
+      PayloadProjections payloadProjections)
+      throws InvalidProtocolBufferException, JsonProcessingException {
+    if (object instanceof byte[] || object instanceof String) {
+      return new JsonPointExtractor(
+          object, collectionNameOverride, vectorEncoding, payloadProjections);
+    }
+    if (object instanceof Struct) {
+      return new StructPointExtractor(
+          (Struct) object, collectionNameOverride, vectorEncoding, payloadProjections);
+    }
+    return new ValueExtractor(object, collectionNameOverride, vectorEncoding, payloadProjections);
+  }
+
+  String getCollectionName();
+
+  PointId getPointId();
+
+  PointStruct getPointStruct();
+
+  void validateOptions();
+}
@@ -0,0 +1,183 @@
+package io.qdrant.kafka;
+
+import io.qdrant.client.grpc.Collections.ShardKey;
+import io.qdrant.client.grpc.JsonWithInt.Value;
+import io.qdrant.client.grpc.Points.NamedVectors;
+import io.qdrant.client.grpc.Points.PointStruct;
+import io.qdrant.client.grpc.Points.PointVectors;
+import io.qdrant.client.grpc.Points.PointsIdsList;
+import io.qdrant.client.grpc.Points.PointsSelector;
+import io.qdrant.client.grpc.Points.PointsUpdateOperation;
+import io.qdrant.client.grpc.Points.PointsUpdateOperation.DeletePayload;
+import io.qdrant.client.grpc.Points.PointsUpdateOperation.DeleteVectors;
+import io.qdrant.client.grpc.Points.PointsUpdateOperation.OverwritePayload;
+import io.qdrant.client.grpc.Points.PointsUpdateOperation.SetPayload;
+import io.qdrant.client.grpc.Points.PointsUpdateOperation.UpdateVectors;
+import io.qdrant.client.grpc.Points.ShardKeySelector;
+import io.qdrant.client.grpc.Points.Vectors;
+import io.qdrant.client.grpc.Points.VectorsSelector;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import org.apache.kafka.connect.errors.DataException;
+
+/**
+ * The operation a record applies to its point. Records are upserted unless the
+ * {@code qdrant.operation.header} header or the {@code qdrant.operation.field} payload field names
+ * another operation. Partial updates only send the part of the point they change:
+ *
+ * <ul>
+ *   <li>{@code set_payload} merges the payload of the record into the payload of the point.
+ *   <li>{@code overwrite_payload} replaces the payload of the point.
+ *   <li>{@code delete_payload} deletes the payload keys of the record from the point.
+ *   <li>{@code update_vectors} replaces the vectors of the record in the point.
+ *   <li>{@code delete_vectors} deletes the named vectors of the record from the point.
+ * </ul>
+ */
+enum PointOperation {
+  UPSERT,
+  DELETE,
+  SET_PAYLOAD,
+  OVERWRITE_PAYLOAD,
+  DELETE_PAYLOAD,
+  UPDATE_VECTORS,
+  DELETE_VECTORS;
+
+  // The name of the default vector of points that have a single, unnamed vector.
+  private static final String DEFAULT_VECTOR = "";
+
+  static PointOperation parse(String operation) throws DataException {
+    try {
+      return valueOf(operation.trim().toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new DataException("Unknown point operation: " + operation);
+    }
+  }
+
+  /** Returns whether the operation only updates a part of the point. */
+  boolean isPartial() {
+    return this != UPSERT && this != DELETE;
+  }
+
+  /**
+   * Returns the partial update of the point with the payload or vectors of the record, restricted
+   * to the shard of the shard key if it is not null.
+   */
+  PointsUpdateOperation update(PointStruct point, ShardKey shardKey) throws DataException {
+    PointsSelector selector =
+        PointsSelector.newBuilder()
+            .setPoints(PointsIdsList.newBuilder().addIds(point.getId()))
+            .build();
+    ShardKeySelector shardKeySelector =
+        shardKey == null ? null : WriteRequest.shardKeySelector(shardKey);
+    PointsUpdateOperation.Builder update = PointsUpdateOperation.newBuilder();
+    switch (this) {
+      case SET_PAYLOAD:
+        SetPayload.Builder setPayload =
+            SetPayload.newBuilder()
+                .putAllPayload(point.getPayloadMap())
+                .setPointsSelector(selector);
+        if (shardKeySelector != null) {
+          setPayload.setShardKeySelector(shardKeySelector);
+        }
+        return update.setSetPayload(setPayload).build();
+      case OVERWRITE_PAYLOAD:
+        OverwritePayload.Builder overwritePayload =
+            OverwritePayload.newBuilder()
+                .putAllPayload(point.getPayloadMap())
+                .setPointsSelector(selector);
+        if (shardKeySelector != null) {
+          overwritePayload.setShardKeySelector(shardKeySelector);
+        }
+        return update.setOverwritePayload(overwritePayload).build();
+      case DELETE_PAYLOAD:
+        if (point.getPayloadCount() == 0) {
+          throw new DataException("delete_payload needs the payload keys to delete");
+        }
+        DeletePayload.Builder deletePayload =
+            DeletePayload.newBuilder()
+                .addAllKeys(point.getPayloadMap().keySet())
+                .setPointsSelector(selector);
+        if (shardKeySelector != null) {
+          deletePayload.setShardKeySelector(shardKeySelector);
+        }
+        return update.setDeletePayload(deletePayload).build();
+      case UPDATE_VECTORS:
+        if (vectorNames(point.getVectors()).isEmpty()) {
+          throw new DataException("update_vectors needs the vectors to update");
+        }
+        UpdateVectors.Builder updateVectors =
+            UpdateVectors.newBuilder()
+                .addPoints(
+                    PointVectors.newBuilder().setId(point.getId()).setVectors(point.getVectors()));
+        if (shardKeySelector != null) {
+          updateVectors.setShardKeySelector(shardKeySelector);
+        }
+        return update.setUpdateVectors(updateVectors).build();
+      case DELETE_VECTORS:
+        List<String> names = vectorNames(point.getVectors());
+        if (names.isEmpty()) {
+          throw new DataException("delete_vectors needs the vectors to delete");
+        }
+        DeleteVectors.Builder deleteVectors =
+            DeleteVectors.newBuilder()
+                .setPointsSelector(selector)
+                .setVectors(VectorsSelector.newBuilder().addAllNames(names));
+        if (shardKeySelector != null) {
+          deleteVectors.setShardKeySelector(shardKeySelector);
+        }
+        return update.setDeleteVectors(deleteVectors).build();
+      default:
+        throw new IllegalStateException(this + " is not a partial update");
+    }
+  }
+
+  /**
+   * Returns the point with the partial update applied, for updates to a point that is upserted
+   * earlier in the same batch.
+   */
+  static PointStruct apply(PointStruct point, PointsUpdateOperation update) {
+    PointStruct.Builder builder = point.toBuilder();
+    switch (update.getOperationCase()) {
+      case SET_PAYLOAD:
+        return builder.putAllPayload(update.getSetPayload().getPayloadMap()).build();
+      case OVERWRITE_PAYLOAD:
+        Map<String, Value> payload = update.getOverwritePayload().getPayloadMap();
+        return builder.clearPayload().putAllPayload(payload).build();
+      case DELETE_PAYLOAD:
+        update.getDeletePayload().getKeysList().forEach(builder::removePayload);
+        return builder.build();
+      case UPDATE_VECTORS:
+        Vectors vectors = update.getUpdateVectors().getPoints(0).getVectors();
+        if (vectors.hasVectors() && point.getVectors().hasVectors()) {
+          NamedVectors merged =
+              point.getVectors().getVectors().toBuilder()
+                  .putAllVectors(vectors.getVectors().getVectorsMap())
+                  .build();
+          return builder.setVectors(Vectors.newBuilder().setVectors(merged)).build();
+        }
+        return builder.setVectors(vectors).build();
+      case DELETE_VECTORS:
+        List<String> names = update.getDeleteVectors().getVectors().getNamesList();
+        if (point.getVectors().hasVectors()) {
+          NamedVectors.Builder remaining = point.getVectors().getVectors().toBuilder();
+          names.forEach(remaining::removeVectors);
+          return builder.setVectors(Vectors.newBuilder().setVectors(remaining)).build();
+        }
+        if (names.contains(DEFAULT_VECTOR)) {
+          builder.setVectors(Vectors.newBuilder().setVectors(NamedVectors.getDefaultInstance()));
+        }
+        return builder.build();
+      default:
+        throw new IllegalArgumentException("Unsupported update: " + update.getOperationCase());
+    }
+  }
+
+  private static List<String> vectorNames(Vectors vectors) {
+    if (vectors.hasVector()) {
+      return List.of(DEFAULT_VECTOR);
+    }
+    return new ArrayList<>(vectors.getVectors().getVectorsMap().keySet());
+  }
+}
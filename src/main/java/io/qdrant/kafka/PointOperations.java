@@ -0,0 +1,62 @@
+package io.qdrant.kafka;
+
+import io.qdrant.client.grpc.JsonWithInt.Value;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import org.apache.kafka.connect.errors.DataException;
+import org.apache.kafka.connect.header.Header;
+import org.apache.kafka.connect.sink.SinkRecord;
+
+/**
+ * Resolves the operation of a record from the {@code qdrant.operation.header} Kafka header or the
+ * {@code qdrant.operation.field} payload field, in that order. Records without either are upserted.
+ */
+final class PointOperations {
+
+  static final PointOperations NONE = new PointOperations(null, null);
+
+  private final String header;
+  private final String field;
+
+  PointOperations(String header, String field) {
+    this.header = header;
+    this.field = field;
+  }
+
+  static PointOperations from(QdrantSinkConfig config) {
+    return new PointOperations(
+        emptyToNull(config.getOperationHeader()), emptyToNull(config.getOperationField()));
+  }
+
+  private static String emptyToNull(String name) {
+    return name == null || name.isBlank() ? null : name.trim();
+  }
+
+  /** Returns the payload field that names the operation, or null if there is none. */
+  String getField() {
+    return field;
+  }
+
+  PointOperation get(SinkRecord record, Map<String, Value> payload) throws DataException {
+    if (header != null) {
+      Header value = record.headers().lastWithName(header);
+      if (value != null && value.value() != null) {
+        Object operation = value.value();
+        return PointOperation.parse(
+            operation instanceof byte[]
+                ? new String((byte[]) operation, StandardCharsets.UTF_8)
+                : operation.toString());
+      }
+    }
+    if (field != null) {
+      Value value = payload.get(field);
+      if (value != null && value.hasStringValue()) {
+        return PointOperation.parse(value.getStringValue());
+      }
+      if (value != null && !value.hasNullValue()) {
+        throw new DataException(String.format("Operation field '%s' must be a string", field));
+      }
+    }
+    return PointOperation.UPSERT;
+  }
+}
@@ -0,0 +1,156 @@
+package io.qdrant.kafka;
+
+import com.google.protobuf.CodedOutputStream;
+import io.qdrant.client.grpc.Common.PointId;
+import io.qdrant.client.grpc.Points.PointStruct;
+import io.qdrant.client.grpc.Points.PointsIdsList;
+import io.qdrant.client.grpc.Points.PointsUpdateOperation;
+import io.qdrant.client.grpc.Points.UpdateBatchPoints;
+import io.qdrant.client.grpc.Points.UpsertPoints;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.kafka.connect.sink.SinkRecord;
+
+/**
+ * The write of a single point, either an upsert, a delete or a sequence of partial updates, and the
+ * record it came from. Records of writes it superseded within a batch are kept, so that their
+ * offsets are only committed and their failures only reported along with this write.
+ */
+final class PointWrite {
+  private final PointId pointId;
+  private final PointStruct point;
+  private final List<PointsUpdateOperation> updates;
+  private final long contentHash;
+  private final long cacheSequence;
+  private final SinkRecord record;
+  private final List<SinkRecord> superseded;
+
+  private PointWrite(
+      PointId pointId,
+      PointStruct point,
+      List<PointsUpdateOperation> updates,
+      long contentHash,
+      long cacheSequence,
+      SinkRecord record,
+      List<SinkRecord> superseded) {
+    this.pointId = pointId;
+    this.point = point;
+    this.updates = updates;
+    this.contentHash = contentHash;
+    this.cacheSequence = cacheSequence;
+    this.record = record;
+    this.superseded = superseded;
+  }
+
+  static PointWrite upsert(PointStruct point, SinkRecord record) {
+    return upsert(point, 0, 0, record);
+  }
+
+  /**
+   * Returns an upsert of the point, with its content hash and the sequence number of its pending
+   * entry in the {@link PointCache}.
+   */
+  static PointWrite upsert(
+      PointStruct point, long contentHash, long cacheSequence, SinkRecord record) {
+    return new PointWrite(
+        point.getId(), point, List.of(), contentHash, cacheSequence, record, List.of());
+  }
+
+  static PointWrite delete(PointId pointId, SinkRecord record) {
+    return new PointWrite(pointId, null, List.of(), 0, 0, record, List.of());
+  }
+
+  static PointWrite update(PointId pointId, PointsUpdateOperation update, SinkRecord record) {
+    return new PointWrite(pointId, null, List.of(update), 0, 0, record, List.of());
+  }
+
+  /**
+   * Returns this write, also covering the records of the given earlier write to the point. Upserts
+   * and deletes replace the earlier write. Partial updates are applied to an earlier upsert and
+   * follow earlier partial updates; they are dropped after a delete, as there is no point left to
+   * update.
+   */
+  PointWrite supersede(PointWrite previous) {
+    List<SinkRecord> records = new ArrayList<>(previous.superseded.size() + 1 + superseded.size());
+    records.addAll(previous.superseded);
+    records.add(previous.record);
+    records.addAll(superseded);
+    if (!isUpdate()) {
+      return new PointWrite(pointId, point, updates, contentHash, cacheSequence, record, records);
+    }
+    if (previous.isDelete()) {
+      return new PointWrite(pointId, null, List.of(), 0, 0, record, records);
+    }
+    if (previous.isUpdate()) {
+      List<PointsUpdateOperation> merged = new ArrayList<>(previous.updates);
+      merged.addAll(updates);
+      return new PointWrite(pointId, null, merged, 0, 0, record, records);
+    }
+    // The updated content is not the content of any record, so it is not cached.
+    PointStruct updated = previous.point;
+    for (PointsUpdateOperation update : updates) {
+      updated = PointOperation.apply(updated, update);
+    }
+    return new PointWrite(pointId, updated, List.of(), 0, 0, record, records);
+  }
+
+  boolean isDelete() {
+    return point == null && updates.isEmpty();
+  }
+
+  boolean isUpdate() {
+    return !updates.isEmpty();
+  }
+
+  /** Returns the number of bytes this write adds to a request, including its field header. */
+  int getSerializedSize() {
+    if (isUpdate()) {
+      int size = 0;
+      for (PointsUpdateOperation update : updates) {
+        size +=
+            CodedOutputStream.computeMessageSize(UpdateBatchPoints.OPERATIONS_FIELD_NUMBER, update);
+      }
+      return size;
+    }
+    return isDelete()
+        ? CodedOutputStream.computeMessageSize(PointsIdsList.IDS_FIELD_NUMBER, pointId)
+        : CodedOutputStream.computeMessageSize(UpsertPoints.POINTS_FIELD_NUMBER, point);
+  }
+
+  PointId getPointId() {
+    return pointId;
+  }
+
+  PointStruct getPoint() {
+    return point;
+  }
+
+  /** Returns the content hash of an upsert, or 0 if it is not cached. */
+  long getContentHash() {
+    return contentHash;
+  }
+
+  /** Returns the sequence number of the pending cache entry of an upsert, or 0 if not cached. */
+  long getCacheSequence() {
+    return cacheSequence;
+  }
+
+  /** Returns the partial updates of the point, in record order. */
+  List<PointsUpdateOperation> getUpdates() {
+    return updates;
+  }
+
+  SinkRecord getRecord() {
+    return record;
+  }
+
+  /** Returns the records of the superseded writes followed by the record of this write. */
+  List<SinkRecord> getRecords() {
+    if (superseded.isEmpty()) {
+      return List.of(record);
+    }
+    List<SinkRecord> records = new ArrayList<>(superseded);
+    records.add(record);
+    return records;
+  }
+}
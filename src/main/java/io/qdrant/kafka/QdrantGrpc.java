@@ -1,56 +1,298 @@
 package io.qdrant.kafka;
 
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.grpc.ManagedChannel;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+import io.grpc.netty.shaded.io.netty.channel.EventLoopGroup;
+import io.grpc.netty.shaded.io.netty.channel.nio.NioEventLoopGroup;
+import io.grpc.netty.shaded.io.netty.channel.socket.nio.NioSocketChannel;
 import io.qdrant.client.QdrantClient;
 import io.qdrant.client.QdrantGrpcClient;
+import io.qdrant.client.grpc.Collections.CollectionInfo;
 import io.qdrant.client.grpc.Common.PointId;
+import io.qdrant.client.grpc.Points.DeletePoints;
 import io.qdrant.client.grpc.Points.PointStruct;
+import io.qdrant.client.grpc.Points.PointsIdsList;
+import io.qdrant.client.grpc.Points.PointsOperationResponse;
+import io.qdrant.client.grpc.Points.PointsSelector;
+import io.qdrant.client.grpc.Points.PointsUpdateOperation;
 import io.qdrant.client.grpc.Points.ShardKeySelector;
+import io.qdrant.client.grpc.Points.UpdateBatchPoints;
+import io.qdrant.client.grpc.Points.UpdateBatchResponse;
+import io.qdrant.client.grpc.Points.UpdateResult;
+import io.qdrant.client.grpc.Points.UpdateStatus;
 import io.qdrant.client.grpc.Points.UpsertPoints;
+import io.qdrant.client.grpc.PointsGrpc.PointsFutureStub;
 import java.io.Serializable;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
-/** Client for interacting with the Qdrant gRPC API. */
+/**
+ * Client for interacting with the Qdrant gRPC API.
+ *
+ * <p>Requests are spread over a pool of channels, each with its own HTTP/2 connection and flow
+ * control window, so that large requests do not queue behind each other on a single connection.
+ */
 public class QdrantGrpc implements Serializable {
 
-  private final QdrantClient client;
+  /** How a channel of the pool is picked for a request. */
+  public enum ChannelSelection {
+    ROUND_ROBIN,
+    LEAST_OUTSTANDING
+  }
+
+  private final List<QdrantClient> clients;
+  private final AtomicInteger[] outstanding;
+  private final ChannelSelection selection;
+  private final AtomicInteger next = new AtomicInteger();
+  private final EventLoopGroup eventLoopGroup;
+  private final ExecutorService executor;
+  private final OutboundBytes outboundBytes = new OutboundBytes();
+  private final String compression;
+  private final int compressionMinBytes;
+  private final WriteOptions writeOptions;
+  private final Duration writeTimeout;
 
   public QdrantGrpc(QdrantSinkConfig config) {
+    URL url;
     try {
-      URL url = new URL(config.getGrpcUrl());
-      String apiKey = config.getApiKey().value();
-
-      String host = url.getHost();
-      int port = url.getPort() == -1 ? 6334 : url.getPort();
-      boolean useTls = url.getProtocol().equalsIgnoreCase("https");
-
-      client =
-          new QdrantClient(
-              QdrantGrpcClient.newBuilder(host, port, useTls).withApiKey(apiKey).build());
+      url = new URL(config.getGrpcUrl());
     } catch (MalformedURLException e) {
       throw new RuntimeException("Invalid GRPC URL: " + config.getGrpcUrl(), e);
     }
+    String apiKey = config.getApiKey().value();
+
+    String host = url.getHost();
+    int port = url.getPort() == -1 ? 6334 : url.getPort();
+    boolean useTls = url.getProtocol().equalsIgnoreCase("https");
+
+    this.eventLoopGroup =
+        new NioEventLoopGroup(config.getGrpcEventLoopThreads(), threadFactory("qdrant-grpc-nio"));
+    this.executor =
+        config.getGrpcExecutorThreads() > 0
+            ? Executors.newFixedThreadPool(
+                config.getGrpcExecutorThreads(), threadFactory("qdrant-grpc-executor"))
+            : null;
+    this.selection = config.getGrpcChannelSelection();
+    this.compression = config.getGrpcCompression();
+    this.compressionMinBytes = config.getGrpcCompressionMinBytes();
+    this.writeOptions = WriteOptions.from(config);
+    this.writeTimeout =
+        config.getWriteTimeoutMs() > 0 ? Duration.ofMillis(config.getWriteTimeoutMs()) : null;
+
+    List<QdrantClient> clients = new ArrayList<>(config.getGrpcChannels());
+    for (int i = 0; i < config.getGrpcChannels(); i++) {
+      ManagedChannel channel = channel(config, host, port, useTls);
+      clients.add(
+          new QdrantClient(QdrantGrpcClient.newBuilder(channel, true).withApiKey(apiKey).build()));
+    }
+    this.clients = clients;
+    this.outstanding = counters(clients.size());
+  }
+
+  QdrantGrpc(QdrantClient client) {
+    this(Collections.singletonList(client), ChannelSelection.ROUND_ROBIN);
+  }
+
+  QdrantGrpc(List<QdrantClient> clients, ChannelSelection selection) {
+    this.clients = clients;
+    this.outstanding = counters(clients.size());
+    this.selection = selection;
+    this.eventLoopGroup = null;
+    this.executor = null;
+    this.compression = null;
+    this.compressionMinBytes = 0;
+    this.writeOptions = WriteOptions.DEFAULT;
+    this.writeTimeout = null;
+  }
+
+  private ManagedChannel channel(QdrantSinkConfig config, String host, int port, boolean useTls) {
+    NettyChannelBuilder builder =
+        NettyChannelBuilder.forAddress(host, port)
+            .eventLoopGroup(eventLoopGroup)
+            .channelType(NioSocketChannel.class)
+            .idleTimeout(config.getGrpcIdleTimeoutMs(), TimeUnit.MILLISECONDS)
+            .maxInboundMessageSize(config.getGrpcMaxInboundMessageBytes())
+            .flowControlWindow(config.getGrpcFlowControlWindowBytes())
+            .intercept(outboundBytes);
+    if (config.getGrpcKeepaliveTimeMs() > 0) {
+      builder
+          .keepAliveTime(config.getGrpcKeepaliveTimeMs(), TimeUnit.MILLISECONDS)
+          .keepAliveTimeout(config.getGrpcKeepaliveTimeoutMs(), TimeUnit.MILLISECONDS)
+          .keepAliveWithoutCalls(true);
+    }
+    if (executor != null) {
+      builder.executor(executor);
+    }
+    if (useTls) {
+      builder.useTransportSecurity();
+    } else {
+      builder.usePlaintext();
+    }
+    return builder.build();
   }
 
-  public void upsert(
-      String collectionName, List<PointStruct> points, ShardKeySelector shardKeySelector)
-      throws InterruptedException, ExecutionException {
+  public ListenableFuture<UpdateResult> upsert(
+      String collectionName, List<PointStruct> points, ShardKeySelector shardKeySelector) {
     UpsertPoints.Builder upsertPoints =
-        UpsertPoints.newBuilder().setCollectionName(collectionName).addAllPoints(points);
+        UpsertPoints.newBuilder()
+            .setCollectionName(collectionName)
+            .setWait(writeOptions.isWait(collectionName))
+            .setOrdering(writeOptions.getOrdering(collectionName))
+            .addAllPoints(points);
     if (shardKeySelector != null) {
       upsertPoints.setShardKeySelector(shardKeySelector);
     }
-    client.upsertAsync(upsertPoints.build()).get();
+    UpsertPoints request = upsertPoints.build();
+    // Small requests skip compression, it costs more latency than it saves on the wire.
+    if (compression != null && request.getSerializedSize() >= compressionMinBytes) {
+      return call(
+          client ->
+              Futures.transform(
+                  points(client, true).upsert(request),
+                  PointsOperationResponse::getResult,
+                  directExecutor()));
+    }
+    return call(client -> client.upsertAsync(request, writeTimeout));
+  }
+
+  public ListenableFuture<UpdateResult> delete(
+      String collectionName, List<PointId> pointIds, ShardKeySelector shardKeySelector) {
+    DeletePoints.Builder deletePoints =
+        DeletePoints.newBuilder()
+            .setCollectionName(collectionName)
+            .setWait(writeOptions.isWait(collectionName))
+            .setOrdering(writeOptions.getOrdering(collectionName))
+            .setPoints(
+                PointsSelector.newBuilder()
+                    .setPoints(PointsIdsList.newBuilder().addAllIds(pointIds)));
+    if (shardKeySelector != null) {
+      deletePoints.setShardKeySelector(shardKeySelector);
+    }
+    DeletePoints request = deletePoints.build();
+    return call(client -> client.deleteAsync(request, writeTimeout));
+  }
+
+  /**
+   * Applies the partial updates in order, in a single request. The result is the first that Qdrant
+   * did not accept, if any.
+   */
+  public ListenableFuture<UpdateResult> updateBatch(
+      String collectionName, List<PointsUpdateOperation> updates) {
+    UpdateBatchPoints request =
+        UpdateBatchPoints.newBuilder()
+            .setCollectionName(collectionName)
+            .setWait(writeOptions.isWait(collectionName))
+            .setOrdering(writeOptions.getOrdering(collectionName))
+            .addAllOperations(updates)
+            .build();
+    boolean compress = compression != null && request.getSerializedSize() >= compressionMinBytes;
+    return call(
+        client ->
+            Futures.transform(
+                points(client, compress).updateBatch(request),
+                QdrantGrpc::result,
+                directExecutor()));
+  }
+
+  /**
+   * Returns the stub for a write that {@link QdrantClient} has no compressed call for, with the
+   * same deadline as its calls.
+   */
+  private PointsFutureStub points(QdrantClient client, boolean compress) {
+    PointsFutureStub points = client.grpcClient().points();
+    if (writeTimeout != null) {
+      points = points.withDeadlineAfter(writeTimeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+    return compress ? points.withCompression(compression) : points;
+  }
+
+  private static UpdateResult result(UpdateBatchResponse response) {
+    UpdateResult result = UpdateResult.newBuilder().setStatus(UpdateStatus.Completed).build();
+    for (UpdateResult update : response.getResultList()) {
+      result = update;
+      if (update.getStatus() != UpdateStatus.Completed
+          && update.getStatus() != UpdateStatus.Acknowledged) {
+        break;
+      }
+    }
+    return result;
+  }
+
+  public ListenableFuture<CollectionInfo> getCollectionInfo(
+      String collectionName, Duration timeout) {
+    return call(client -> client.getCollectionInfoAsync(collectionName, timeout));
+  }
+
+  <T> ListenableFuture<T> call(Function<QdrantClient, ListenableFuture<T>> request) {
+    int index = select();
+    AtomicInteger requests = outstanding[index];
+    requests.incrementAndGet();
+    ListenableFuture<T> future;
+    try {
+      future = request.apply(clients.get(index));
+    } catch (RuntimeException e) {
+      requests.decrementAndGet();
+      throw e;
+    }
+    future.addListener(requests::decrementAndGet, directExecutor());
+    return future;
+  }
+
+  // Picks the channel for the next request. Ties between least loaded channels go round-robin.
+  int select() {
+    int start = Math.floorMod(next.getAndIncrement(), clients.size());
+    if (selection == ChannelSelection.ROUND_ROBIN) {
+      return start;
+    }
+    int selected = start;
+    for (int i = 1; i < clients.size(); i++) {
+      int candidate = (start + i) % clients.size();
+      if (outstanding[candidate].get() < outstanding[selected].get()) {
+        selected = candidate;
+      }
+    }
+    return selected;
   }
 
-  public void delete(String collectionName, PointId pointId)
-      throws InterruptedException, ExecutionException {
-    client.deleteAsync(collectionName, List.of(pointId)).get();
+  /** Returns the bytes sent to Qdrant, before and after compression. */
+  OutboundBytes getOutboundBytes() {
+    return outboundBytes;
   }
 
   public void close() {
-    client.close();
+    clients.forEach(QdrantClient::close);
+    if (eventLoopGroup != null) {
+      eventLoopGroup.shutdownGracefully();
+    }
+    if (executor != null) {
+      executor.shutdown();
+    }
+  }
+
+  private static AtomicInteger[] counters(int size) {
+    AtomicInteger[] counters = new AtomicInteger[size];
+    for (int i = 0; i < size; i++) {
+      counters[i] = new AtomicInteger();
+    }
+    return counters;
+  }
+
+  private static ThreadFactory threadFactory(String name) {
+    return new ThreadFactoryBuilder().setNameFormat(name + "-%d").setDaemon(true).build();
   }
 }
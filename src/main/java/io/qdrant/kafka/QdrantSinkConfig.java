@@ -1,5 +1,7 @@
 package io.qdrant.kafka;
 
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import org.apache.kafka.common.config.AbstractConfig;
 import org.apache.kafka.common.config.ConfigDef;
@@ -9,6 +11,47 @@ public class QdrantSinkConfig extends AbstractConfig {
   protected static final String GRPC_URL = "qdrant.grpc.url";
   protected static final String API_KEY = "qdrant.api.key";
   protected static final String COLLECTION_NAME = "qdrant.collection.name";
+  protected static final String GRPC_CHANNELS = "qdrant.grpc.channels";
+  protected static final String GRPC_CHANNEL_SELECTION = "qdrant.grpc.channel.selection";
+  protected static final String GRPC_KEEPALIVE_TIME_MS = "qdrant.grpc.keepalive.time.ms";
+  protected static final String GRPC_KEEPALIVE_TIMEOUT_MS = "qdrant.grpc.keepalive.timeout.ms";
+  protected static final String GRPC_IDLE_TIMEOUT_MS = "qdrant.grpc.idle.timeout.ms";
+  protected static final String GRPC_MAX_INBOUND_MESSAGE_BYTES =
+      "qdrant.grpc.max.inbound.message.bytes";
+  protected static final String GRPC_FLOW_CONTROL_WINDOW_BYTES =
+      "qdrant.grpc.flow.control.window.bytes";
+  protected static final String GRPC_COMPRESSION = "qdrant.grpc.compression";
+  protected static final String GRPC_COMPRESSION_MIN_BYTES = "qdrant.grpc.compression.min.bytes";
+  protected static final String GRPC_EVENT_LOOP_THREADS = "qdrant.grpc.event.loop.threads";
+  protected static final String GRPC_EXECUTOR_THREADS = "qdrant.grpc.executor.threads";
+  protected static final String WRITE_ASYNC = "qdrant.write.async";
+  protected static final String WRITE_WAIT = "qdrant.write.wait";
+  protected static final String WRITE_ORDERING = "qdrant.write.ordering";
+  protected static final String WRITE_MAX_IN_FLIGHT = "qdrant.write.max.in.flight";
+  protected static final String WRITE_MAX_IN_FLIGHT_PER_COLLECTION =
+      "qdrant.write.max.in.flight.per.collection";
+  protected static final String WRITE_MAX_PENDING = "qdrant.write.max.pending";
+  protected static final String RETRY_MAX_RETRIES = "qdrant.retry.max.retries";
+  protected static final String RETRY_BACKOFF_MS = "qdrant.retry.backoff.ms";
+  protected static final String RETRY_BACKOFF_MAX_MS = "qdrant.retry.backoff.max.ms";
+  protected static final String RETRY_SPLIT_MAX_REQUESTS = "qdrant.retry.split.max.requests";
+  protected static final String WRITE_DRAIN_TIMEOUT_MS = "qdrant.write.drain.timeout.ms";
+  protected static final String WRITE_TIMEOUT_MS = "qdrant.write.timeout.ms";
+  protected static final String WRITE_BATCH_MAX_POINTS = "qdrant.write.batch.max.points";
+  protected static final String WRITE_BATCH_MAX_BYTES = "qdrant.write.batch.max.bytes";
+  protected static final String WRITE_LINGER_MS = "qdrant.write.linger.ms";
+  protected static final String VECTOR_ENCODING = "qdrant.vector.encoding";
+  protected static final String PAYLOAD_INCLUDE = "qdrant.payload.include";
+  protected static final String PAYLOAD_EXCLUDE = "qdrant.payload.exclude";
+  protected static final String SHARD_KEY_HEADER = "qdrant.shard.key.header";
+  protected static final String SHARD_KEY_FIELD = "qdrant.shard.key.field";
+  protected static final String SHARD_KEY_TOPICS = "qdrant.shard.key.topics";
+  protected static final String CONVERT_THREADS = "qdrant.convert.threads";
+  protected static final String OPERATION_HEADER = "qdrant.operation.header";
+  protected static final String OPERATION_FIELD = "qdrant.operation.field";
+  protected static final String POINT_CACHE_SIZE = "qdrant.point.cache.size";
+  protected static final String VECTOR_VALIDATION = "qdrant.vector.validation";
+  protected static final String VECTOR_VALIDATION_TTL_MS = "qdrant.vector.validation.ttl.ms";
 
   public QdrantSinkConfig(ConfigDef config, Map<String, String> parsedConfig) {
     super(config, parsedConfig);
@@ -37,7 +80,300 @@ public class QdrantSinkConfig extends AbstractConfig {
             ConfigDef.Type.STRING,
             "",
             ConfigDef.Importance.MEDIUM,
-            "Target collection name. If set, overrides record-level collection_name. ");
+            "Target collection name. If set, overrides record-level collection_name. ")
+        .define(
+            GRPC_CHANNELS,
+            ConfigDef.Type.INT,
+            1,
+            ConfigDef.Range.between(1, 64),
+            ConfigDef.Importance.LOW,
+            "Number of gRPC channels per task, each with its own HTTP/2 connection.")
+        .define(
+            GRPC_CHANNEL_SELECTION,
+            ConfigDef.Type.STRING,
+            "round_robin",
+            ConfigDef.ValidString.in("round_robin", "least_outstanding"),
+            ConfigDef.Importance.LOW,
+            "How a channel is picked for a request: round_robin, or least_outstanding for the"
+                + " channel with the fewest requests in flight.")
+        .define(
+            GRPC_KEEPALIVE_TIME_MS,
+            ConfigDef.Type.LONG,
+            0L,
+            ConfigDef.Range.atLeast(0),
+            ConfigDef.Importance.LOW,
+            "Time in milliseconds between HTTP/2 keepalive pings. 0 disables keepalive.")
+        .define(
+            GRPC_KEEPALIVE_TIMEOUT_MS,
+            ConfigDef.Type.LONG,
+            20000L,
+            ConfigDef.Range.atLeast(1),
+            ConfigDef.Importance.LOW,
+            "Time in milliseconds to wait for a keepalive ping to be acknowledged before the"
+                + " connection is closed.")
+        .define(
+            GRPC_IDLE_TIMEOUT_MS,
+            ConfigDef.Type.LONG,
+            1800000L,
+            ConfigDef.Range.atLeast(1),
+            ConfigDef.Importance.LOW,
+            "Time in milliseconds without requests after which a channel releases its"
+                + " connection.")
+        .define(
+            GRPC_MAX_INBOUND_MESSAGE_BYTES,
+            ConfigDef.Type.INT,
+            4 * 1024 * 1024,
+            ConfigDef.Range.atLeast(1024),
+            ConfigDef.Importance.LOW,
+            "Maximum size in bytes of a response from Qdrant.")
+        .define(
+            GRPC_FLOW_CONTROL_WINDOW_BYTES,
+            ConfigDef.Type.INT,
+            1024 * 1024,
+            ConfigDef.Range.atLeast(65535),
+            ConfigDef.Importance.LOW,
+            "Initial HTTP/2 flow control window in bytes of each connection.")
+        .define(
+            GRPC_COMPRESSION,
+            ConfigDef.Type.STRING,
+            "none",
+            ConfigDef.ValidString.in("none", "gzip"),
+            ConfigDef.Importance.LOW,
+            "Compression codec for upsert requests: none or gzip.")
+        .define(
+            GRPC_COMPRESSION_MIN_BYTES,
+            ConfigDef.Type.INT,
+            32768,
+            ConfigDef.Range.atLeast(0),
+            ConfigDef.Importance.LOW,
+            "Minimum serialized size in bytes of an upsert request to be compressed.")
+        .define(
+            GRPC_EVENT_LOOP_THREADS,
+            ConfigDef.Type.INT,
+            0,
+            ConfigDef.Range.atLeast(0),
+            ConfigDef.Importance.LOW,
+            "Number of Netty event loop threads shared by the channels of a task. 0 uses the"
+                + " Netty default.")
+        .define(
+            GRPC_EXECUTOR_THREADS,
+            ConfigDef.Type.INT,
+            0,
+            ConfigDef.Range.atLeast(0),
+            ConfigDef.Importance.LOW,
+            "Number of threads completing gRPC calls of a task. 0 uses the gRPC default cached"
+                + " thread pool.")
+        .define(
+            WRITE_ASYNC,
+            ConfigDef.Type.BOOLEAN,
+            false,
+            ConfigDef.Importance.MEDIUM,
+            "If true, writes are sent without waiting for Qdrant and offsets are committed once"
+                + " the writes are acknowledged.")
+        .define(
+            WRITE_WAIT,
+            ConfigDef.Type.BOOLEAN,
+            true,
+            ConfigDef.Importance.MEDIUM,
+            "If true, Qdrant applies a write before acknowledging it. If false, it acknowledges"
+                + " the write once it is persisted in the write-ahead log. Can be set per"
+                + " collection with qdrant.write.wait.<collection>.")
+        .define(
+            WRITE_ORDERING,
+            ConfigDef.Type.STRING,
+            "weak",
+            ConfigDef.ValidString.in("weak", "medium", "strong"),
+            ConfigDef.Importance.LOW,
+            "Write ordering guarantee: weak, medium or strong. Can be set per collection with"
+                + " qdrant.write.ordering.<collection>.")
+        .define(
+            WRITE_MAX_IN_FLIGHT,
+            ConfigDef.Type.INT,
+            10,
+            ConfigDef.Range.atLeast(1),
+            ConfigDef.Importance.LOW,
+            "Maximum number of write requests in flight per task.")
+        .define(
+            WRITE_MAX_IN_FLIGHT_PER_COLLECTION,
+            ConfigDef.Type.INT,
+            5,
+            ConfigDef.Range.atLeast(1),
+            ConfigDef.Importance.LOW,
+            "Maximum number of write requests in flight per collection and task, so that a slow"
+                + " collection cannot hold up the writes to other collections.")
+        .define(
+            WRITE_MAX_PENDING,
+            ConfigDef.Type.INT,
+            100,
+            ConfigDef.Range.atLeast(1),
+            ConfigDef.Importance.LOW,
+            "Maximum number of write requests per task that are queued or in flight before new"
+                + " records wait.")
+        .define(
+            RETRY_MAX_RETRIES,
+            ConfigDef.Type.INT,
+            5,
+            ConfigDef.Range.atLeast(0),
+            ConfigDef.Importance.MEDIUM,
+            "Maximum number of times a write failing with UNAVAILABLE, DEADLINE_EXCEEDED or"
+                + " RESOURCE_EXHAUSTED is retried before the batch is redelivered by Connect.")
+        .define(
+            RETRY_BACKOFF_MS,
+            ConfigDef.Type.LONG,
+            100L,
+            ConfigDef.Range.atLeast(1),
+            ConfigDef.Importance.LOW,
+            "Time in milliseconds to wait before the first retry of a write. It doubles with every"
+                + " retry.")
+        .define(
+            RETRY_BACKOFF_MAX_MS,
+            ConfigDef.Type.LONG,
+            10000L,
+            ConfigDef.Range.atLeast(1),
+            ConfigDef.Importance.LOW,
+            "Maximum time in milliseconds to wait before a retry of a write, and before Connect"
+                + " redelivers a batch whose writes ran out of retries.")
+        .define(
+            RETRY_SPLIT_MAX_REQUESTS,
+            ConfigDef.Type.INT,
+            32,
+            ConfigDef.Range.atLeast(0),
+            ConfigDef.Importance.LOW,
+            "Maximum number of extra requests to spend on a write request that Qdrant rejects,"
+                + " splitting it in halves until only the failing points are left to report. 0"
+                + " reports every record of a rejected request.")
+        .define(
+            WRITE_DRAIN_TIMEOUT_MS,
+            ConfigDef.Type.LONG,
+            30000L,
+            ConfigDef.Range.atLeast(0),
+            ConfigDef.Importance.LOW,
+            "Time in milliseconds to wait for in-flight writes when partitions are closed or the"
+                + " task stops.")
+        .define(
+            WRITE_TIMEOUT_MS,
+            ConfigDef.Type.LONG,
+            0L,
+            ConfigDef.Range.atLeast(0),
+            ConfigDef.Importance.LOW,
+            "Deadline in milliseconds of a write request, compressed or not, after which it fails"
+                + " with DEADLINE_EXCEEDED and is retried. 0 sets no deadline.")
+        .define(
+            WRITE_BATCH_MAX_POINTS,
+            ConfigDef.Type.INT,
+            1000,
+            ConfigDef.Range.atLeast(1),
+            ConfigDef.Importance.LOW,
+            "Maximum number of points per write request to a collection.")
+        .define(
+            WRITE_BATCH_MAX_BYTES,
+            ConfigDef.Type.INT,
+            16 * 1024 * 1024,
+            ConfigDef.Range.atLeast(1024),
+            ConfigDef.Importance.LOW,
+            "Maximum serialized size in bytes of a write request. Records whose point alone"
+                + " exceeds it are reported as errant.")
+        .define(
+            WRITE_LINGER_MS,
+            ConfigDef.Type.LONG,
+            0L,
+            ConfigDef.Range.atLeast(0),
+            ConfigDef.Importance.MEDIUM,
+            "Time in milliseconds that writes are buffered across batches of records, unless they"
+                + " fill a write request sooner. Buffered writes are also sent when offsets are"
+                + " committed. 0 sends the writes of every batch right away.")
+        .define(
+            VECTOR_ENCODING,
+            ConfigDef.Type.STRING,
+            "float32",
+            ConfigDef.ValidString.in("float32", "float16", "bfloat16"),
+            ConfigDef.Importance.MEDIUM,
+            "Encoding of dense vectors given as bytes or base64 strings: little-endian float32,"
+                + " float16 or bfloat16. Half-precision floats are widened to float32.")
+        .define(
+            PAYLOAD_INCLUDE,
+            ConfigDef.Type.LIST,
+            "",
+            ConfigDef.Importance.MEDIUM,
+            "Dotted paths of the payload fields to keep, such as title or author.name. Empty"
+                + " keeps every field. Can be set per collection with"
+                + " qdrant.payload.include.<collection>.")
+        .define(
+            PAYLOAD_EXCLUDE,
+            ConfigDef.Type.LIST,
+            "",
+            ConfigDef.Importance.MEDIUM,
+            "Dotted paths of the payload fields to drop, such as html or debug.trace. Dropped"
+                + " fields are skipped without being converted. Can be set per collection with"
+                + " qdrant.payload.exclude.<collection>.")
+        .define(
+            SHARD_KEY_HEADER,
+            ConfigDef.Type.STRING,
+            "",
+            ConfigDef.Importance.LOW,
+            "Kafka header holding the shard key of a record, as a string or an integer. Takes"
+                + " precedence over qdrant.shard.key.field and qdrant.shard.key.topics.")
+        .define(
+            SHARD_KEY_FIELD,
+            ConfigDef.Type.STRING,
+            "",
+            ConfigDef.Importance.LOW,
+            "Payload field holding the shard key of a record, as a string or an integer.")
+        .define(
+            SHARD_KEY_TOPICS,
+            ConfigDef.Type.LIST,
+            "",
+            ConfigDef.Importance.LOW,
+            "Shard keys of the records of a topic, as topic:shard-key entries. Used for records"
+                + " whose shard key is not in a header or a field.")
+        .define(
+            CONVERT_THREADS,
+            ConfigDef.Type.INT,
+            1,
+            ConfigDef.Range.atLeast(1),
+            ConfigDef.Importance.LOW,
+            "Number of threads that convert the records of a batch into points, in parallel"
+                + " across topic partitions. 1 converts them on the task thread.")
+        .define(
+            OPERATION_HEADER,
+            ConfigDef.Type.STRING,
+            "",
+            ConfigDef.Importance.LOW,
+            "Kafka header naming the operation of a record: upsert, delete, set_payload,"
+                + " overwrite_payload, delete_payload, update_vectors or delete_vectors. Takes"
+                + " precedence over qdrant.operation.field.")
+        .define(
+            OPERATION_FIELD,
+            ConfigDef.Type.STRING,
+            "",
+            ConfigDef.Importance.LOW,
+            "Payload field naming the operation of a record. The field is removed from the"
+                + " payload. Records without an operation are upserted.")
+        .define(
+            POINT_CACHE_SIZE,
+            ConfigDef.Type.INT,
+            0,
+            ConfigDef.Range.between(0, 1 << 30),
+            ConfigDef.Importance.LOW,
+            "Number of points whose content hash is cached, about 17 bytes each. Upserts of"
+                + " points whose content Qdrant already acknowledged are skipped, which makes"
+                + " replays cheap. 0 disables the cache.")
+        .define(
+            VECTOR_VALIDATION,
+            ConfigDef.Type.BOOLEAN,
+            false,
+            ConfigDef.Importance.LOW,
+            "Whether to check the vectors of every point against the vector config of its"
+                + " collection. Points with unknown vector names, wrong dimensions or the wrong"
+                + " kind of vector go to the dead letter queue.")
+        .define(
+            VECTOR_VALIDATION_TTL_MS,
+            ConfigDef.Type.LONG,
+            300000L,
+            ConfigDef.Range.atLeast(1),
+            ConfigDef.Importance.LOW,
+            "Time in milliseconds for which the vector config of a collection is cached. The"
+                + " config is also fetched again after a write to the collection failed.");
   }
 
   public String getGrpcUrl() {
@@ -51,4 +387,159 @@ public class QdrantSinkConfig extends AbstractConfig {
   public String getCollectionName() {
     return getString(COLLECTION_NAME);
   }
+
+  public int getGrpcChannels() {
+    return getInt(GRPC_CHANNELS);
+  }
+
+  public QdrantGrpc.ChannelSelection getGrpcChannelSelection() {
+    return QdrantGrpc.ChannelSelection.valueOf(
+        getString(GRPC_CHANNEL_SELECTION).toUpperCase(Locale.ROOT));
+  }
+
+  public long getGrpcKeepaliveTimeMs() {
+    return getLong(GRPC_KEEPALIVE_TIME_MS);
+  }
+
+  public long getGrpcKeepaliveTimeoutMs() {
+    return getLong(GRPC_KEEPALIVE_TIMEOUT_MS);
+  }
+
+  public long getGrpcIdleTimeoutMs() {
+    return getLong(GRPC_IDLE_TIMEOUT_MS);
+  }
+
+  public int getGrpcMaxInboundMessageBytes() {
+    return getInt(GRPC_MAX_INBOUND_MESSAGE_BYTES);
+  }
+
+  public int getGrpcFlowControlWindowBytes() {
+    return getInt(GRPC_FLOW_CONTROL_WINDOW_BYTES);
+  }
+
+  /** Returns the compression codec for upserts, or {@code null} if they are not compressed. */
+  public String getGrpcCompression() {
+    String compression = getString(GRPC_COMPRESSION);
+    return compression.equals("none") ? null : compression;
+  }
+
+  public int getGrpcCompressionMinBytes() {
+    return getInt(GRPC_COMPRESSION_MIN_BYTES);
+  }
+
+  public int getGrpcEventLoopThreads() {
+    return getInt(GRPC_EVENT_LOOP_THREADS);
+  }
+
+  public int getGrpcExecutorThreads() {
+    return getInt(GRPC_EXECUTOR_THREADS);
+  }
+
+  public boolean isWriteAsync() {
+    return getBoolean(WRITE_ASYNC);
+  }
+
+  public boolean isWriteWait() {
+    return getBoolean(WRITE_WAIT);
+  }
+
+  public String getWriteOrdering() {
+    return getString(WRITE_ORDERING);
+  }
+
+  public int getWriteMaxInFlight() {
+    return getInt(WRITE_MAX_IN_FLIGHT);
+  }
+
+  public int getWriteMaxInFlightPerCollection() {
+    return getInt(WRITE_MAX_IN_FLIGHT_PER_COLLECTION);
+  }
+
+  public int getWriteMaxPending() {
+    return getInt(WRITE_MAX_PENDING);
+  }
+
+  public int getRetryMaxRetries() {
+    return getInt(RETRY_MAX_RETRIES);
+  }
+
+  public long getRetryBackoffMs() {
+    return getLong(RETRY_BACKOFF_MS);
+  }
+
+  public long getRetryBackoffMaxMs() {
+    return getLong(RETRY_BACKOFF_MAX_MS);
+  }
+
+  public int getRetrySplitMaxRequests() {
+    return getInt(RETRY_SPLIT_MAX_REQUESTS);
+  }
+
+  public long getWriteDrainTimeoutMs() {
+    return getLong(WRITE_DRAIN_TIMEOUT_MS);
+  }
+
+  public long getWriteTimeoutMs() {
+    return getLong(WRITE_TIMEOUT_MS);
+  }
+
+  public int getWriteBatchMaxPoints() {
+    return getInt(WRITE_BATCH_MAX_POINTS);
+  }
+
+  public int getWriteBatchMaxBytes() {
+    return getInt(WRITE_BATCH_MAX_BYTES);
+  }
+
+  public long getWriteLingerMs() {
+    return getLong(WRITE_LINGER_MS);
+  }
+
+  public VectorEncoding getVectorEncoding() {
+    return VectorEncoding.valueOf(getString(VECTOR_ENCODING).toUpperCase(Locale.ROOT));
+  }
+
+  public List<String> getPayloadInclude() {
+    return getList(PAYLOAD_INCLUDE);
+  }
+
+  public List<String> getPayloadExclude() {
+    return getList(PAYLOAD_EXCLUDE);
+  }
+
+  public String getShardKeyHeader() {
+    return getString(SHARD_KEY_HEADER);
+  }
+
+  public String getShardKeyField() {
+    return getString(SHARD_KEY_FIELD);
+  }
+
+  public List<String> getShardKeyTopics() {
+    return getList(SHARD_KEY_TOPICS);
+  }
+
+  public int getConvertThreads() {
+    return getInt(CONVERT_THREADS);
+  }
+
+  public String getOperationHeader() {
+    return getString(OPERATION_HEADER);
+  }
+
+  public String getOperationField() {
+    return getString(OPERATION_FIELD);
+  }
+
+  public int getPointCacheSize() {
+    return getInt(POINT_CACHE_SIZE);
+  }
+
+  public boolean isVectorValidation() {
+    return getBoolean(VECTOR_VALIDATION);
+  }
+
+  public long getVectorValidationTtlMs() {
+    return getLong(VECTOR_VALIDATION_TTL_MS);
+  }
 }
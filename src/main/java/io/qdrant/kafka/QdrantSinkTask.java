@@ -1,12 +1,14 @@
 package io.qdrant.kafka;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.google.protobuf.InvalidProtocolBufferException;
-import io.qdrant.client.grpc.Common.PointId;
-import io.qdrant.client.grpc.Points.PointStruct;
+import io.qdrant.kafka.RecordConverter.Conversion;
+import io.qdrant.kafka.WritePipeline.FailedWrite;
 import java.util.*;
-import java.util.concurrent.ExecutionException;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.metrics.PluginMetrics;
+import org.apache.kafka.connect.errors.ConnectException;
 import org.apache.kafka.connect.errors.DataException;
+import org.apache.kafka.connect.errors.RetriableException;
 import org.apache.kafka.connect.sink.ErrantRecordReporter;
 import org.apache.kafka.connect.sink.SinkRecord;
 import org.apache.kafka.connect.sink.SinkTask;
@@ -19,6 +21,14 @@ public class QdrantSinkTask extends SinkTask {
   private QdrantSinkConfig config;
   private QdrantGrpc qdrantGrpc;
   private ErrantRecordReporter reporter;
+  private OffsetTracker offsetTracker;
+  private WritePipeline pipeline;
+  private SinkMetrics metrics;
+  private RetryPolicy retryPolicy;
+  private WriteBuffer buffer;
+  private RecordConverter converter;
+  private PointCache cache;
+  private CollectionSchemas schemas;
 
   @Override
   public String version() {
@@ -37,77 +47,208 @@ public class QdrantSinkTask extends SinkTask {
     if (reporter == null) {
       log.warn("Errant record reporter is not configured.");
     }
+    this.offsetTracker = new OffsetTracker();
+    this.metrics = new SinkMetrics(pluginMetrics(), this.qdrantGrpc.getOutboundBytes());
+    this.retryPolicy = RetryPolicy.from(config);
+    this.cache = PointCache.from(config);
+    this.schemas = CollectionSchemas.from(config, this.qdrantGrpc);
+    this.converter = RecordConverter.from(config, cache, schemas);
+    this.buffer =
+        new WriteBuffer(
+            config.getWriteBatchMaxPoints(),
+            config.getWriteBatchMaxBytes(),
+            config.getWriteLingerMs(),
+            this::rejected);
+    this.pipeline =
+        new WritePipeline(
+            this.qdrantGrpc,
+            offsetTracker,
+            metrics,
+            retryPolicy,
+            cache,
+            config.getWriteMaxInFlight(),
+            config.getWriteMaxInFlightPerCollection(),
+            config.getWriteMaxPending());
     log.info("Starting QdrantSinkTask at " + config.getGrpcUrl());
   }
 
+  // Plugin metrics are only available from Connect 4.1 on.
+  private PluginMetrics pluginMetrics() {
+    try {
+      return context.pluginMetrics();
+    } catch (UnsupportedOperationException | LinkageError e) {
+      log.warn("Plugin metrics are not supported by this Connect runtime, metrics are disabled.");
+      return null;
+    }
+  }
+
   @Override
   public void put(Collection<SinkRecord> records) {
-    if (records.isEmpty()) {
-      return;
-    }
-    Map<String, Map<PointStruct, SinkRecord>> pointsWithRecords = new HashMap<>();
+    // Failures of asynchronous writes from earlier batches are reported first.
+    reportFailures();
+    retryExhausted();
 
-    String collectionNameOverride = config.getCollectionName();
+    List<Conversion> conversions;
+    try {
+      conversions = converter.convert(records);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ConnectException("Interrupted while converting sink records.", e);
+    }
+    List<SinkRecord> buffered = new ArrayList<>(records.size());
+    long now = System.currentTimeMillis();
 
-    for (SinkRecord record : records) {
-      if (record.value() == null) {
-        // Upserts are flushed first to preserve Kafka record order
-        // when a batch contains both an
-        // upsert and a later tombstone for the same point.
-        upsert(pointsWithRecords);
-        pointsWithRecords.clear();
+    for (Conversion conversion : conversions) {
+      SinkRecord record = conversion.getRecord();
+      String collectionName = conversion.getCollectionName();
+      Exception error = conversion.getError();
+      if (error == null && conversion.isUnchanged(cache)) {
+        // Upserts of content that Qdrant already has are acknowledged without a write.
+        metrics.recordUnchanged(collectionName);
+        continue;
       }
-      try {
-        if (record.value() == null) {
-          ValueExtractor key = new ValueExtractor(record.key(), collectionNameOverride);
-          delete(key.getCollectionName(), key.getPointId(), record);
+      if (error == null) {
+        try {
+          // Tombstones and upserts are collapsed per point, the last write wins.
+          // Ordering across batches is kept per point by the write pipeline.
+          conversion.addTo(buffer.batch(record, now));
+          metrics.recordConverted(collectionName, conversion.getNanos());
+          buffered.add(record);
           continue;
+        } catch (DataException e) {
+          error = e;
         }
-        ValueExtractor e = new ValueExtractor(record.value(), collectionNameOverride);
-        e.validateOptions();
-        pointsWithRecords
-            .computeIfAbsent(e.getCollectionName(), k -> new HashMap<>())
-            .put(e.getPointStruct(), record);
-      } catch (InvalidProtocolBufferException | JsonProcessingException | DataException e) {
-        if (reporter == null) throw new DataException("Invalid sink record", e);
-        reporter.report(record, e);
       }
+      if (reporter == null) throw new DataException("Invalid sink record", error);
+      reporter.report(record, error);
+      metrics.recordErrant(collectionName, 1);
     }
 
-    upsert(pointsWithRecords);
+    // Buffered records are pending until their writes are acknowledged.
+    offsetTracker.track(buffered);
+    if (!buffer.isReady(System.currentTimeMillis())) {
+      return;
+    }
+    buffer.drain().forEach(this::submit);
+
+    if (!config.isWriteAsync()) {
+      try {
+        pipeline.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new ConnectException("Interrupted while waiting for Qdrant writes.", e);
+      }
+      reportFailures();
+      retryExhausted();
+    }
   }
 
-  private void upsert(Map<String, Map<PointStruct, SinkRecord>> pointsWithRecords) {
-    pointsWithRecords.forEach(
-        (collectionName, pointsMap) -> {
-          List<PointStruct> pointsList = new ArrayList<>(pointsMap.keySet());
-          try {
-            qdrantGrpc.upsert(collectionName, pointsList, null);
-          } catch (InterruptedException | ExecutionException e) {
-            if (e instanceof InterruptedException) Thread.currentThread().interrupt();
-            pointsMap
-                .values()
-                .forEach(record -> report(record, "Qdrant server exception during upsert.", e));
-          }
-        });
+  @Override
+  public Map<TopicPartition, OffsetAndMetadata> preCommit(
+      Map<TopicPartition, OffsetAndMetadata> currentOffsets) {
+    buffer.drain().forEach(this::submit);
+    reportFailures();
+    return offsetTracker.committableOffsets(currentOffsets);
   }
 
-  private void delete(String collectionName, PointId pointId, SinkRecord record) {
+  private void submit(WriteRequest request) {
     try {
-      qdrantGrpc.delete(collectionName, pointId);
-    } catch (InterruptedException | ExecutionException e) {
-      if (e instanceof InterruptedException) Thread.currentThread().interrupt();
-      report(record, "Qdrant server exception during delete.", e);
+      pipeline.submit(request);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ConnectException("Interrupted while submitting Qdrant writes.", e);
     }
   }
 
+  // Writes that no longer fit in a request once the buffered batches of partitions are merged.
+  private void rejected(String collectionName, PointWrite write, DataException cause) {
+    if (write.getContentHash() != 0) {
+      cache.discard(
+          PointCache.key(collectionName, write.getPointId()),
+          write.getContentHash(),
+          write.getCacheSequence());
+    }
+    List<SinkRecord> records = write.getRecords();
+    records.forEach(record -> report(record, "Invalid sink record", cause));
+    metrics.recordErrant(collectionName, records.size());
+    offsetTracker.complete(records);
+  }
+
+  private void reportFailures() {
+    for (FailedWrite failure : pipeline.drainFailures()) {
+      WriteRequest request = failure.getRequest();
+      Throwable cause = failure.getCause();
+      Exception exception =
+          cause instanceof Exception ? (Exception) cause : new ConnectException(cause);
+      List<SinkRecord> records = request.getRecords();
+      records.forEach(record -> report(record, request.errorMessage(), exception));
+      metrics.recordErrant(request.getCollectionName(), records.size());
+      offsetTracker.complete(records);
+      // The collection may have been recreated with other vectors.
+      schemas.invalidate(request.getCollectionName());
+    }
+  }
+
+  /**
+   * Has Connect back off and redeliver the batch when writes ran out of retries. Writes of earlier
+   * asynchronous or buffered batches are submitted again, since Connect only redelivers the current
+   * batch. Otherwise, the writes are all of the current batch and are left to the redelivery.
+   */
+  private void retryExhausted() {
+    List<WriteRequest> exhausted = pipeline.drainExhausted();
+    if (exhausted.isEmpty()) {
+      return;
+    }
+    if (config.isWriteAsync() || config.getWriteLingerMs() > 0) {
+      exhausted.forEach(this::submit);
+    } else {
+      exhausted.forEach(request -> offsetTracker.complete(request.getRecords()));
+    }
+    context.timeout(retryPolicy.getMaxBackoffMs());
+    throw new RetriableException(
+        exhausted.size() + " Qdrant write requests ran out of retries, retrying the batch.");
+  }
+
   private void report(SinkRecord record, String message, Exception exception) {
     if (reporter == null) throw new DataException(message, exception);
     reporter.report(record, exception);
   }
 
+  // Waits for in-flight writes so that none of them outlives the partitions or the task.
+  private void drain() {
+    try {
+      if (!pipeline.await(config.getWriteDrainTimeoutMs())) {
+        log.warn(
+            "Qdrant writes still in flight after {} ms, their records will be redelivered.",
+            config.getWriteDrainTimeoutMs());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      log.warn("Interrupted while waiting for in-flight Qdrant writes.");
+    }
+    reportFailures();
+  }
+
+  @Override
+  public void close(Collection<TopicPartition> partitions) {
+    buffer.drain(partitions).forEach(this::submit);
+    drain();
+    offsetTracker.remove(partitions);
+    // Other tasks may write the points of the partitions until they are assigned back.
+    cache.clear();
+  }
+
   @Override
   public void stop() {
+    buffer.drain().forEach(this::submit);
+    drain();
+    OutboundBytes outboundBytes = qdrantGrpc.getOutboundBytes();
+    log.info(
+        "Sent {} bytes to Qdrant, {} bytes before compression.",
+        outboundBytes.getWireBytes(),
+        outboundBytes.getUncompressedBytes());
+    pipeline.close();
+    converter.close();
     qdrantGrpc.close();
   }
 }
@@ -0,0 +1,321 @@
+package io.qdrant.kafka;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.google.protobuf.InvalidProtocolBufferException;
+import io.qdrant.client.grpc.Collections.ShardKey;
+import io.qdrant.client.grpc.Common.PointId;
+import io.qdrant.client.grpc.Points.PointStruct;
+import io.qdrant.client.grpc.Points.PointsUpdateOperation;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.connect.errors.ConnectException;
+import org.apache.kafka.connect.errors.DataException;
+import org.apache.kafka.connect.sink.SinkRecord;
+
+/**
+ * Converts sink records into point writes. With more than one thread, the records of every topic
+ * partition are converted on a pool in parallel with the other partitions. Conversions are returned
+ * in the order of the records, so the writes are batched in the same order as when converted on
+ * the task thread.
+ */
+final class RecordConverter implements AutoCloseable {
+
+  private final String collectionNameOverride;
+  private final VectorEncoding vectorEncoding;
+  private final PayloadProjections payloadProjections;
+  private final PayloadProjections readProjections;
+  private final ShardKeys shardKeys;
+  private final PointOperations operations;
+  private final PointCache cache;
+  private final CollectionSchemas schemas;
+  private final ExecutorService executor;
+
+  RecordConverter(
+      String collectionNameOverride,
+      VectorEncoding vectorEncoding,
+      PayloadProjections payloadProjections,
+      ShardKeys shardKeys,
+      PointOperations operations,
+      PointCache cache,
+      CollectionSchemas schemas,
+      int threads) {
+    this.collectionNameOverride = collectionNameOverride;
+    this.vectorEncoding = vectorEncoding;
+    this.payloadProjections = payloadProjections;
+    // The operation and shard key fields are read whatever the projections keep of the payload.
+    List<String> readFields = new ArrayList<>();
+    if (operations.getField() != null) {
+      readFields.add(operations.getField());
+    }
+    if (shardKeys.getField() != null) {
+      readFields.add(shardKeys.getField());
+    }
+    this.readProjections = payloadProjections.keeping(readFields);
+    this.shardKeys = shardKeys;
+    this.operations = operations;
+    this.cache = cache;
+    this.schemas = schemas;
+    this.executor = threads > 1 ? Executors.newFixedThreadPool(threads, threadFactory()) : null;
+  }
+
+  static RecordConverter from(
+      QdrantSinkConfig config, PointCache cache, CollectionSchemas schemas) {
+    return new RecordConverter(
+        config.getCollectionName(),
+        config.getVectorEncoding(),
+        PayloadProjections.from(config),
+        ShardKeys.from(config),
+        PointOperations.from(config),
+        cache,
+        schemas,
+        config.getConvertThreads());
+  }
+
+  private static ThreadFactory threadFactory() {
+    AtomicInteger count = new AtomicInteger();
+    return runnable -> {
+      Thread thread = new Thread(runnable, "qdrant-convert-" + count.getAndIncrement());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+
+  /** Returns the conversions of the records, in the order of the records. */
+  List<Conversion> convert(Collection<SinkRecord> records) throws InterruptedException {
+    List<SinkRecord> list = new ArrayList<>(records);
+    Map<TopicPartition, List<Integer>> partitions = new LinkedHashMap<>();
+    for (int i = 0; i < list.size(); i++) {
+      partitions
+          .computeIfAbsent(OffsetTracker.partition(list.get(i)), k -> new ArrayList<>())
+          .add(i);
+    }
+
+    Conversion[] conversions = new Conversion[list.size()];
+    if (executor == null || partitions.size() < 2) {
+      for (int i = 0; i < list.size(); i++) {
+        conversions[i] = convert(list.get(i));
+      }
+      return Arrays.asList(conversions);
+    }
+
+    // Every partition is converted by a single thread, in the order of its records.
+    List<Future<?>> futures = new ArrayList<>(partitions.size());
+    for (List<Integer> indices : partitions.values()) {
+      futures.add(
+          executor.submit(
+              () -> {
+                for (int i : indices) {
+                  conversions[i] = convert(list.get(i));
+                }
+              }));
+    }
+    try {
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new ConnectException("Failed to convert sink records.", e.getCause());
+    } finally {
+      futures.forEach(future -> future.cancel(true));
+    }
+    return Arrays.asList(conversions);
+  }
+
+  Conversion convert(SinkRecord record) {
+    long start = System.nanoTime();
+    String collectionName = SinkMetrics.UNKNOWN_COLLECTION;
+    try {
+      PointId pointId;
+      ShardKey shardKey;
+      PointStruct point = null;
+      PointsUpdateOperation update = null;
+      if (record.value() == null) {
+        PointExtractor key =
+            PointExtractor.of(
+                record.key(), collectionNameOverride, vectorEncoding, readProjections);
+        collectionName = key.getCollectionName();
+        pointId = key.getPointId();
+        shardKey = shardKeys.get(record, null);
+      } else {
+        PointExtractor e =
+            PointExtractor.of(
+                record.value(), collectionNameOverride, vectorEncoding, readProjections);
+        e.validateOptions();
+        collectionName = e.getCollectionName();
+        PointStruct converted = e.getPointStruct();
+        PointOperation operation = operations.get(record, converted.getPayloadMap());
+        converted = removePayload(converted, operations.getField());
+        pointId = converted.getId();
+        shardKey = shardKeys.get(record, converted.getPayloadMap());
+        String shardKeyField = shardKeys.getField();
+        if (shardKeyField != null
+            && payloadProjections.get(collectionName).field(shardKeyField) == null) {
+          converted = removePayload(converted, shardKeyField);
+        }
+        if (operation == PointOperation.UPSERT || operation == PointOperation.UPDATE_VECTORS) {
+          validateVectors(collectionName, converted);
+        }
+        if (operation == PointOperation.UPSERT) {
+          point = converted;
+        } else if (operation.isPartial()) {
+          update = operation.update(converted, shardKey);
+        }
+      }
+
+      long cacheKey = 0;
+      long contentHash = 0;
+      if (cache.isEnabled()) {
+        cacheKey = PointCache.key(collectionName, pointId);
+        contentHash = point == null ? 0 : PointCache.contentHash(point, shardKey);
+      }
+      return new Conversion(
+          record,
+          collectionName,
+          shardKey,
+          pointId,
+          point,
+          update,
+          cacheKey,
+          contentHash,
+          System.nanoTime() - start);
+    } catch (InvalidProtocolBufferException | JsonProcessingException | DataException e) {
+      return new Conversion(record, collectionName, e);
+    }
+  }
+
+  private static PointStruct removePayload(PointStruct point, String field) {
+    if (field == null || !point.containsPayload(field)) {
+      return point;
+    }
+    return point.toBuilder().removePayload(field).build();
+  }
+
+  // Points whose vectors the collection does not accept would fail their whole request.
+  private void validateVectors(String collectionName, PointStruct point) throws DataException {
+    if (!schemas.isEnabled() || !point.hasVectors()) {
+      return;
+    }
+    CollectionSchema schema = schemas.get(collectionName);
+    if (schema != null) {
+      schema.validate(point.getVectors());
+    }
+  }
+
+  @Override
+  public void close() {
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+  }
+
+  /** The write of a converted record, or the error that the record failed to convert with. */
+  static final class Conversion {
+    private final SinkRecord record;
+    private final String collectionName;
+    private final ShardKey shardKey;
+    private final PointId pointId;
+    private final PointStruct point;
+    private final PointsUpdateOperation update;
+    private final long cacheKey;
+    private final long contentHash;
+    private long cacheSequence;
+    private final long nanos;
+    private final Exception error;
+
+    private Conversion(
+        SinkRecord record,
+        String collectionName,
+        ShardKey shardKey,
+        PointId pointId,
+        PointStruct point,
+        PointsUpdateOperation update,
+        long cacheKey,
+        long contentHash,
+        long nanos) {
+      this.record = record;
+      this.collectionName = collectionName;
+      this.shardKey = shardKey;
+      this.pointId = pointId;
+      this.point = point;
+      this.update = update;
+      this.cacheKey = cacheKey;
+      this.contentHash = contentHash;
+      this.nanos = nanos;
+      this.error = null;
+    }
+
+    private Conversion(SinkRecord record, String collectionName, Exception error) {
+      this.record = record;
+      this.collectionName = collectionName;
+      this.shardKey = null;
+      this.pointId = null;
+      this.point = null;
+      this.update = null;
+      this.cacheKey = 0;
+      this.contentHash = 0;
+      this.nanos = 0;
+      this.error = error;
+    }
+
+    /**
+     * Records the write in the cache. Returns true for an upsert of the content that Qdrant has
+     * acknowledged for the point already, which needs no write.
+     */
+    boolean isUnchanged(PointCache cache) {
+      if (cacheKey == 0) {
+        return false;
+      }
+      if (point == null) {
+        cache.invalidate(cacheKey);
+        return false;
+      }
+      if (cache.isUnchanged(cacheKey, contentHash)) {
+        return true;
+      }
+      cacheSequence = cache.pending(cacheKey, contentHash);
+      return false;
+    }
+
+    /** Adds the write to the batch, where it supersedes earlier writes to the same point. */
+    void addTo(WriteBatch batch) throws DataException {
+      if (update != null) {
+        batch.update(collectionName, shardKey, pointId, update, record);
+      } else if (point == null) {
+        batch.delete(collectionName, shardKey, pointId, record);
+      } else {
+        batch.upsert(collectionName, shardKey, point, contentHash, cacheSequence, record);
+      }
+    }
+
+    SinkRecord getRecord() {
+      return record;
+    }
+
+    String getCollectionName() {
+      return collectionName;
+    }
+
+    long getNanos() {
+      return nanos;
+    }
+
+    /** Returns the error of the conversion, or null if the record was converted. */
+    Exception getError() {
+      return error;
+    }
+  }
+}
@@ -0,0 +1,71 @@
+package io.qdrant.kafka;
+
+import io.grpc.Status;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides which failed writes are retried, how often, and how long to wait before each retry, and
+ * how many extra requests may be spent splitting a rejected write to isolate its failing points.
+ */
+final class RetryPolicy {
+
+  static final RetryPolicy NONE = new RetryPolicy(0, 0, 0, 0);
+
+  // Statuses of an unavailable or overloaded Qdrant, which are expected to clear up on their own.
+  private static final Set<Status.Code> RETRYABLE =
+      EnumSet.of(
+          Status.Code.UNAVAILABLE, Status.Code.DEADLINE_EXCEEDED, Status.Code.RESOURCE_EXHAUSTED);
+
+  private final int maxRetries;
+  private final long backoffMs;
+  private final long maxBackoffMs;
+  private final int maxSplitRequests;
+
+  RetryPolicy(int maxRetries, long backoffMs, long maxBackoffMs) {
+    this(maxRetries, backoffMs, maxBackoffMs, 0);
+  }
+
+  RetryPolicy(int maxRetries, long backoffMs, long maxBackoffMs, int maxSplitRequests) {
+    this.maxRetries = maxRetries;
+    this.backoffMs = backoffMs;
+    this.maxBackoffMs = maxBackoffMs;
+    this.maxSplitRequests = maxSplitRequests;
+  }
+
+  static RetryPolicy from(QdrantSinkConfig config) {
+    return new RetryPolicy(
+        config.getRetryMaxRetries(),
+        config.getRetryBackoffMs(),
+        config.getRetryBackoffMaxMs(),
+        config.getRetrySplitMaxRequests());
+  }
+
+  boolean isRetryable(Throwable t) {
+    return RETRYABLE.contains(Status.fromThrowable(t).getCode());
+  }
+
+  int getMaxRetries() {
+    return maxRetries;
+  }
+
+  long getMaxBackoffMs() {
+    return maxBackoffMs;
+  }
+
+  /** Returns the number of extra requests a rejected write may be split into, 0 to report it. */
+  int getMaxSplitRequests() {
+    return maxSplitRequests;
+  }
+
+  /**
+   * Returns the time to wait before the given retry, counted from 0. The backoff doubles with every
+   * retry up to the maximum, and a random point in its upper half is picked so that tasks do not
+   * retry in lockstep.
+   */
+  long backoffMs(int retry) {
+    long backoff = Math.min(maxBackoffMs, backoffMs << Math.min(retry, 30));
+    return backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+  }
+}
@@ -0,0 +1,122 @@
+package io.qdrant.kafka;
+
+import io.qdrant.client.grpc.Collections.ShardKey;
+import io.qdrant.client.grpc.JsonWithInt.Value;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.kafka.common.config.ConfigException;
+import org.apache.kafka.connect.errors.DataException;
+import org.apache.kafka.connect.header.Header;
+import org.apache.kafka.connect.sink.SinkRecord;
+
+/**
+ * Resolves the shard key of a record from the {@code qdrant.shard.key.header} Kafka header, the
+ * {@code qdrant.shard.key.field} payload field or the {@code qdrant.shard.key.topics} mapping, in
+ * that order. Tombstones carry no payload, their shard key comes from the header or the topic.
+ */
+final class ShardKeys {
+
+  static final ShardKeys NONE = new ShardKeys(null, null, Map.of());
+
+  private final String header;
+  private final String field;
+  private final Map<String, ShardKey> topics;
+
+  ShardKeys(String header, String field, Map<String, ShardKey> topics) {
+    this.header = header;
+    this.field = field;
+    this.topics = topics;
+  }
+
+  static ShardKeys from(QdrantSinkConfig config) throws ConfigException {
+    return new ShardKeys(
+        emptyToNull(config.getShardKeyHeader()),
+        emptyToNull(config.getShardKeyField()),
+        topics(config.getShardKeyTopics()));
+  }
+
+  private static String emptyToNull(String name) {
+    return name == null || name.isBlank() ? null : name.trim();
+  }
+
+  private static Map<String, ShardKey> topics(List<String> entries) throws ConfigException {
+    Map<String, ShardKey> topics = new HashMap<>();
+    for (String entry : entries) {
+      int separator = entry.lastIndexOf(':');
+      if (separator <= 0 || separator == entry.length() - 1) {
+        throw new ConfigException(
+            QdrantSinkConfig.SHARD_KEY_TOPICS, entry, "Must be a topic:shard-key entry");
+      }
+      topics.put(
+          entry.substring(0, separator).trim(), keyword(entry.substring(separator + 1).trim()));
+    }
+    return topics;
+  }
+
+  /** Returns the payload field that holds the shard key, or null if there is none. */
+  String getField() {
+    return field;
+  }
+
+  /**
+   * Returns the shard key of the record, or null if it has none. The payload is null for
+   * tombstones.
+   */
+  ShardKey get(SinkRecord record, Map<String, Value> payload) throws DataException {
+    if (header != null) {
+      Header value = record.headers().lastWithName(header);
+      if (value != null && value.value() != null) {
+        return shardKey(value.value());
+      }
+    }
+    if (field != null && payload != null) {
+      Value value = payload.get(field);
+      if (value != null && !value.hasNullValue()) {
+        return shardKey(value);
+      }
+    }
+    return topics.get(record.topic());
+  }
+
+  private ShardKey shardKey(Object value) throws DataException {
+    if (value instanceof String) {
+      return keyword((String) value);
+    }
+    if (value instanceof byte[]) {
+      return keyword(new String((byte[]) value, StandardCharsets.UTF_8));
+    }
+    if (value instanceof Byte
+        || value instanceof Short
+        || value instanceof Integer
+        || value instanceof Long) {
+      return number(((Number) value).longValue());
+    }
+    throw new DataException(
+        String.format("Shard key header '%s' must be a string or an integer", header));
+  }
+
+  private ShardKey shardKey(Value value) throws DataException {
+    switch (value.getKindCase()) {
+      case STRING_VALUE:
+        return keyword(value.getStringValue());
+      case INTEGER_VALUE:
+        return number(value.getIntegerValue());
+      default:
+        throw new DataException(
+            String.format("Shard key field '%s' must be a string or an integer", field));
+    }
+  }
+
+  private static ShardKey keyword(String keyword) {
+    return ShardKey.newBuilder().setKeyword(keyword).build();
+  }
+
+  private static ShardKey number(long number) throws DataException {
+    if (number < 0) {
+      throw new DataException("Shard key must not be negative, got " + number);
+    }
+    return ShardKey.newBuilder().setNumber(number).build();
+  }
+}
@@ -0,0 +1,239 @@
+package io.qdrant.kafka;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.metrics.Gauge;
+import org.apache.kafka.common.metrics.PluginMetrics;
+import org.apache.kafka.common.metrics.Sensor;
+import org.apache.kafka.common.metrics.stats.Avg;
+import org.apache.kafka.common.metrics.stats.CumulativeCount;
+import org.apache.kafka.common.metrics.stats.CumulativeSum;
+import org.apache.kafka.common.metrics.stats.Max;
+import org.apache.kafka.common.metrics.stats.Meter;
+import org.apache.kafka.common.metrics.stats.Percentile;
+import org.apache.kafka.common.metrics.stats.Percentiles;
+import org.apache.kafka.common.metrics.stats.Percentiles.BucketSizing;
+import org.apache.kafka.common.metrics.stats.WindowedCount;
+
+/**
+ * Metrics of a sink task, registered through the Connect plugin metrics and tagged by collection.
+ * Without plugin metrics, for example on Connect runtimes before 4.1, nothing is recorded.
+ */
+class SinkMetrics {
+
+  /** The collection tag of records that failed before their collection was known. */
+  static final String UNKNOWN_COLLECTION = "unknown";
+
+  private static final String COLLECTION_TAG = "collection";
+  private static final double MAX_LATENCY_MS = 30000;
+  private static final int PERCENTILES_SIZE_BYTES = 4000;
+
+  private final PluginMetrics metrics;
+  private final Map<String, CollectionMetrics> collections = new ConcurrentHashMap<>();
+
+  SinkMetrics(PluginMetrics metrics, OutboundBytes outboundBytes) {
+    this.metrics = metrics;
+    if (metrics != null) {
+      LinkedHashMap<String, String> tags = new LinkedHashMap<>();
+      metrics.addMetric(
+          metrics.metricName(
+              "outbound-bytes-total", "Bytes sent to Qdrant, after compression.", tags),
+          (Gauge<Long>) (config, now) -> outboundBytes.getWireBytes());
+      metrics.addMetric(
+          metrics.metricName(
+              "outbound-uncompressed-bytes-total",
+              "Bytes sent to Qdrant, before compression.",
+              tags),
+          (Gauge<Long>) (config, now) -> outboundBytes.getUncompressedBytes());
+    }
+  }
+
+  static SinkMetrics noop() {
+    return new SinkMetrics(null, null);
+  }
+
+  /** Records the conversion of a record into a write to the collection. */
+  void recordConverted(String collectionName, long nanos) {
+    CollectionMetrics collection = collection(collectionName);
+    if (collection != null) {
+      collection.records.record();
+      collection.conversionTime.record(nanos);
+    }
+  }
+
+  /** Records a record whose upsert was skipped, as Qdrant already has its content. */
+  void recordUnchanged(String collectionName) {
+    CollectionMetrics collection = collection(collectionName);
+    if (collection != null) {
+      collection.unchangedRecords.record();
+    }
+  }
+
+  /** Records records reported to the errant record reporter. */
+  void recordErrant(String collectionName, int records) {
+    CollectionMetrics collection = collection(collectionName);
+    if (collection != null) {
+      collection.errantRecords.record(records);
+    }
+  }
+
+  void requestSent(WriteRequest request) {
+    CollectionMetrics collection = collection(request.getCollectionName());
+    if (collection != null) {
+      collection.inFlight.incrementAndGet();
+      collection.requestPoints.record(request.getWrites().size());
+      collection.requestBytes.record(request.getSerializedSize());
+    }
+  }
+
+  void requestCompleted(WriteRequest request, long nanos, boolean success) {
+    CollectionMetrics collection = collection(request.getCollectionName());
+    if (collection != null) {
+      collection.inFlight.decrementAndGet();
+      Sensor latency;
+      switch (request.getOperation()) {
+        case DELETE:
+          latency = collection.deleteLatency;
+          break;
+        case UPDATE:
+          latency = collection.updateLatency;
+          break;
+        default:
+          latency = collection.upsertLatency;
+      }
+      latency.record((double) nanos / TimeUnit.MILLISECONDS.toNanos(1));
+      if (!success) {
+        collection.failedRequests.record();
+      }
+    }
+  }
+
+  /** Records a failed request that is sent again after a backoff. */
+  void requestRetried(WriteRequest request) {
+    CollectionMetrics collection = collection(request.getCollectionName());
+    if (collection != null) {
+      collection.retriedRequests.record();
+    }
+  }
+
+  /** Records a rejected request that is split in halves to isolate its failing points. */
+  void requestSplit(WriteRequest request) {
+    CollectionMetrics collection = collection(request.getCollectionName());
+    if (collection != null) {
+      collection.splitRequests.record();
+    }
+  }
+
+  private CollectionMetrics collection(String collectionName) {
+    if (metrics == null) {
+      return null;
+    }
+    return collections.computeIfAbsent(collectionName, CollectionMetrics::new);
+  }
+
+  /** The sensors of a single collection. */
+  private final class CollectionMetrics {
+    private final LinkedHashMap<String, String> tags = new LinkedHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Sensor records;
+    private final Sensor conversionTime;
+    private final Sensor upsertLatency;
+    private final Sensor deleteLatency;
+    private final Sensor updateLatency;
+    private final Sensor requestPoints;
+    private final Sensor requestBytes;
+    private final Sensor unchangedRecords;
+    private final Sensor errantRecords;
+    private final Sensor failedRequests;
+    private final Sensor retriedRequests;
+    private final Sensor splitRequests;
+
+    private CollectionMetrics(String collectionName) {
+      tags.put(COLLECTION_TAG, collectionName);
+      String prefix = "qdrant." + collectionName + ".";
+
+      records = metrics.addSensor(prefix + "records");
+      records.add(
+          new Meter(
+              new WindowedCount(),
+              name("record-rate", "Records converted per second."),
+              name("record-total", "Records converted.")));
+
+      conversionTime = metrics.addSensor(prefix + "conversion-time");
+      conversionTime.add(
+          name("conversion-time-ns-avg", "Average time to convert a record, in nanoseconds."),
+          new Avg());
+      conversionTime.add(
+          name("conversion-time-ns-max", "Maximum time to convert a record, in nanoseconds."),
+          new Max());
+
+      upsertLatency = latencySensor(prefix + "upsert-latency", "upsert");
+      deleteLatency = latencySensor(prefix + "delete-latency", "delete");
+      updateLatency = latencySensor(prefix + "update-latency", "update");
+
+      requestPoints = metrics.addSensor(prefix + "request-points");
+      requestPoints.add(name("request-points-avg", "Average points per request."), new Avg());
+      requestPoints.add(name("request-points-max", "Maximum points per request."), new Max());
+
+      requestBytes = metrics.addSensor(prefix + "request-bytes");
+      requestBytes.add(
+          name("request-bytes-avg", "Average serialized bytes per request."), new Avg());
+      requestBytes.add(
+          name("request-bytes-max", "Maximum serialized bytes per request."), new Max());
+
+      unchangedRecords = metrics.addSensor(prefix + "unchanged-records");
+      unchangedRecords.add(
+          name("unchanged-record-total", "Upserts skipped as Qdrant already had their content."),
+          new CumulativeCount());
+
+      errantRecords = metrics.addSensor(prefix + "errant-records");
+      errantRecords.add(
+          name("errant-record-total", "Records reported to the errant record reporter."),
+          new CumulativeSum());
+
+      failedRequests = metrics.addSensor(prefix + "failed-requests");
+      failedRequests.add(
+          name("failed-request-total", "Requests that Qdrant did not accept."),
+          new CumulativeCount());
+
+      retriedRequests = metrics.addSensor(prefix + "retried-requests");
+      retriedRequests.add(
+          name("retried-request-total", "Requests sent again after a transient failure."),
+          new CumulativeCount());
+
+      splitRequests = metrics.addSensor(prefix + "split-requests");
+      splitRequests.add(
+          name("split-request-total", "Rejected requests split in halves and sent again."),
+          new CumulativeCount());
+
+      metrics.addMetric(
+          name("requests-in-flight", "Requests sent and not completed yet."),
+          (Gauge<Integer>) (config, now) -> inFlight.get());
+    }
+
+    private Sensor latencySensor(String sensorName, String operation) {
+      Sensor sensor = metrics.addSensor(sensorName);
+      String description = "latency of " + operation + " requests, in milliseconds.";
+      sensor.add(name(operation + "-latency-ms-avg", "Average " + description), new Avg());
+      sensor.add(name(operation + "-latency-ms-max", "Maximum " + description), new Max());
+      sensor.add(
+          new Percentiles(
+              PERCENTILES_SIZE_BYTES,
+              0,
+              MAX_LATENCY_MS,
+              BucketSizing.LINEAR,
+              new Percentile(name(operation + "-latency-ms-p50", "Median " + description), 50),
+              new Percentile(
+                  name(operation + "-latency-ms-p99", "99th percentile " + description), 99)));
+      return sensor;
+    }
+
+    private MetricName name(String name, String description) {
+      return metrics.metricName(name, description, tags);
+    }
+  }
+}
@@ -0,0 +1,414 @@
+package io.qdrant.kafka;
+
+import static io.qdrant.client.ValueFactory.nullValue;
+import static io.qdrant.client.ValueFactory.value;
+import static io.qdrant.kafka.ValueExtractor.COLLECTION_NAME_KEY;
+import static io.qdrant.kafka.ValueExtractor.ID_KEY;
+import static io.qdrant.kafka.ValueExtractor.PAYLOAD_KEY;
+import static io.qdrant.kafka.ValueExtractor.VECTOR_KEY;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import io.qdrant.client.grpc.Common.PointId;
+import io.qdrant.client.grpc.JsonWithInt.ListValue;
+import io.qdrant.client.grpc.JsonWithInt.Value;
+import io.qdrant.client.grpc.Points.NamedVectors;
+import io.qdrant.client.grpc.Points.PointStruct;
+import io.qdrant.client.grpc.Points.Vector;
+import io.qdrant.client.grpc.Points.Vectors;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.errors.DataException;
+
+/**
+ * Extracts points from Connect Structs, as produced by schema-aware converters such as Avro or
+ * Protobuf. A {@link Plan} is compiled once per schema: it resolves the id, collection name, vector
+ * and payload fields and picks the conversion of every nested field from its schema. Converting a
+ * record is then a sequence of field reads without per-value type dispatch.
+ *
+ * <p>Plans are cached per schema instance. Schemas are held weakly, so the plans of schemas that
+ * converters no longer use are evicted.
+ */
+final class StructPointExtractor implements PointExtractor {
+
+  private static final Cache<Schema, Plan> PLANS =
+      CacheBuilder.newBuilder().weakKeys().maximumSize(1000).build();
+
+  private static final Vectors EMPTY_VECTORS =
+      Vectors.newBuilder().setVectors(NamedVectors.getDefaultInstance()).build();
+
+  private final Plan plan;
+  private final Struct struct;
+  private final String collectionNameOverride;
+  private final VectorEncoding vectorEncoding;
+  private final PayloadProjections payloadProjections;
+
+  StructPointExtractor(Struct struct, String collectionNameOverride) throws DataException {
+    this(struct, collectionNameOverride, VectorEncoding.FLOAT32, PayloadProjections.NONE);
+  }
+
+  StructPointExtractor(
+      Struct struct,
+      String collectionNameOverride,
+      VectorEncoding vectorEncoding,
+      PayloadProjections payloadProjections)
+      throws DataException {
+    this.plan = plan(struct.schema());
+    this.struct = struct;
+    this.collectionNameOverride = collectionNameOverride;
+    this.vectorEncoding = vectorEncoding;
+    this.payloadProjections = payloadProjections;
+  }
+
+  static Plan plan(Schema schema) throws DataException {
+    try {
+      return PLANS.get(schema, () -> new Plan(schema));
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw new DataException("Could not compile a converter for schema " + schema, e.getCause());
+    }
+  }
+
+  @Override
+  public String getCollectionName() {
+    return ValueExtractor.collectionName(plan.collectionName.read(struct), collectionNameOverride);
+  }
+
+  @Override
+  public PointId getPointId() {
+    return ValueExtractor.pointId(plan.id.read(struct));
+  }
+
+  @Override
+  public PointStruct getPointStruct() {
+    PointStruct.Builder point = PointStruct.newBuilder().setId(getPointId());
+    plan.payload.read(struct, point, payloadProjections.get(this));
+    return point.setVectors(plan.vectors.read(struct, vectorEncoding)).build();
+  }
+
+  @Override
+  public void validateOptions() {
+    ValueExtractor.validateRequired(COLLECTION_NAME_KEY, plan.collectionName.read(struct));
+    ValueExtractor.validateRequired(ID_KEY, plan.id.read(struct));
+  }
+
+  /** Converts a non-null Connect value into a Qdrant value. */
+  @FunctionalInterface
+  interface Converter {
+    Value convert(Object value);
+  }
+
+  /**
+   * Converts a non-null Connect value into a Qdrant vector. The encoding is that of vectors given
+   * as bytes, it is not part of the plan since plans are shared by all tasks in the worker.
+   */
+  @FunctionalInterface
+  interface VectorConverter {
+    Vector convert(Object value, VectorEncoding encoding);
+  }
+
+  @FunctionalInterface
+  interface FieldReader {
+    Value read(Struct struct);
+  }
+
+  @FunctionalInterface
+  interface VectorsReader {
+    Vectors read(Struct struct, VectorEncoding encoding);
+  }
+
+  /** Reads the payload fields of the projection, dropped fields are not converted. */
+  @FunctionalInterface
+  interface PayloadReader {
+    void read(Struct struct, PointStruct.Builder point, PayloadProjection projection);
+  }
+
+  /** The conversion of the records of a single schema. */
+  static final class Plan {
+    private final FieldReader id;
+    private final FieldReader collectionName;
+    private final VectorsReader vectors;
+    private final PayloadReader payload;
+
+    private Plan(Schema schema) {
+      this.id = field(schema.field(ID_KEY));
+      this.collectionName = field(schema.field(COLLECTION_NAME_KEY));
+      this.vectors = vectors(schema.field(VECTOR_KEY));
+      this.payload = payload(schema.field(PAYLOAD_KEY));
+    }
+  }
+
+  private static FieldReader field(Field field) {
+    if (field == null) {
+      return struct -> null;
+    }
+    Converter converter = converter(field.schema());
+    return struct -> converter.convert(struct.get(field));
+  }
+
+  private static PayloadReader payload(Field field) {
+    if (field == null) {
+      return (struct, point, projection) -> {};
+    }
+    Schema schema = field.schema();
+    switch (schema.type()) {
+      case STRUCT:
+        List<Field> fields = schema.fields();
+        Converter[] converters = converters(fields);
+        return (struct, point, projection) -> {
+          Struct payload = (Struct) struct.get(field);
+          if (payload != null) {
+            for (int i = 0; i < converters.length; i++) {
+              Field payloadField = fields.get(i);
+              PayloadProjection fieldProjection = projection.field(payloadField.name());
+              if (fieldProjection != null) {
+                Value value = converters[i].convert(payload.get(payloadField));
+                point.putPayload(payloadField.name(), fieldProjection.project(value));
+              }
+            }
+          }
+        };
+      case MAP:
+        Converter converter = converter(schema.valueSchema());
+        return (struct, point, projection) -> {
+          Map<?, ?> payload = (Map<?, ?>) struct.get(field);
+          if (payload != null) {
+            for (Map.Entry<?, ?> entry : payload.entrySet()) {
+              String name = String.valueOf(entry.getKey());
+              PayloadProjection fieldProjection = projection.field(name);
+              if (fieldProjection != null) {
+                Value value = converter.convert(entry.getValue());
+                point.putPayload(name, fieldProjection.project(value));
+              }
+            }
+          }
+        };
+      default:
+        return (struct, point, projection) -> {
+          if (struct.get(field) != null) {
+            throw new DataException("Payload must be an object.");
+          }
+        };
+    }
+  }
+
+  private static VectorsReader vectors(Field field) {
+    if (field == null) {
+      return (struct, encoding) -> EMPTY_VECTORS;
+    }
+    Schema schema = field.schema();
+
+    boolean dense = schema.type() == Schema.Type.ARRAY || schema.type() == Schema.Type.BYTES;
+    VectorConverter vector = dense ? vector(schema) : null;
+    if (vector != null) {
+      return (struct, encoding) -> {
+        Object value = struct.get(field);
+        return value == null
+            ? EMPTY_VECTORS
+            : Vectors.newBuilder().setVector(vector.convert(value, encoding)).build();
+      };
+    }
+
+    if (schema.type() == Schema.Type.STRUCT) {
+      List<Field> fields = schema.fields();
+      VectorConverter[] converters = new VectorConverter[fields.size()];
+      boolean direct = true;
+      for (int i = 0; i < converters.length; i++) {
+        converters[i] = vector(fields.get(i).schema());
+        direct &= converters[i] != null;
+      }
+      if (direct) {
+        return (struct, encoding) -> {
+          Struct named = (Struct) struct.get(field);
+          if (named == null) {
+            return EMPTY_VECTORS;
+          }
+          NamedVectors.Builder namedVectors = NamedVectors.newBuilder();
+          for (int i = 0; i < converters.length; i++) {
+            Field namedField = fields.get(i);
+            namedVectors.putVectors(
+                namedField.name(), namedVector(converters[i], named.get(namedField), encoding));
+          }
+          return Vectors.newBuilder().setVectors(namedVectors).build();
+        };
+      }
+    }
+
+    if (schema.type() == Schema.Type.MAP) {
+      VectorConverter converter = vector(schema.valueSchema());
+      if (converter != null) {
+        return (struct, encoding) -> {
+          Map<?, ?> named = (Map<?, ?>) struct.get(field);
+          if (named == null) {
+            return EMPTY_VECTORS;
+          }
+          NamedVectors.Builder namedVectors = NamedVectors.newBuilder();
+          for (Map.Entry<?, ?> entry : named.entrySet()) {
+            namedVectors.putVectors(
+                String.valueOf(entry.getKey()),
+                namedVector(converter, entry.getValue(), encoding));
+          }
+          return Vectors.newBuilder().setVectors(namedVectors).build();
+        };
+      }
+    }
+
+    // Any other shape goes through the generic conversion and its validation.
+    Converter converter = converter(schema);
+    return (struct, encoding) -> {
+      Value value = converter.convert(struct.get(field));
+      return value.hasNullValue() ? EMPTY_VECTORS : VectorsFactory.vectors(value, encoding);
+    };
+  }
+
+  private static Vector namedVector(
+      VectorConverter converter, Object value, VectorEncoding encoding) {
+    if (value == null) {
+      throw new DataException("Named vector values must be either dense or sparse vectors");
+    }
+    return converter.convert(value, encoding);
+  }
+
+  // Returns the direct conversion of a vector with the schema, or null if it has none.
+  private static VectorConverter vector(Schema schema) {
+    switch (schema.type()) {
+      case ARRAY:
+        Schema element = schema.valueSchema();
+        if (isNumber(element)) {
+          return (value, encoding) -> VectorsFactory.denseVector((List<?>) value);
+        }
+        if (element.type() == Schema.Type.ARRAY && isNumber(element.valueSchema())) {
+          return (value, encoding) -> VectorsFactory.multiDenseVector((List<?>) value);
+        }
+        return null;
+      case BYTES:
+        return schema.name() == null ? VectorsFactory::denseVector : null;
+      case STRUCT:
+        Field indices = schema.field("indices");
+        Field values = schema.field("values");
+        if (schema.fields().size() != 2
+            || indices == null
+            || values == null
+            || indices.schema().type() != Schema.Type.ARRAY
+            || !isInteger(indices.schema().valueSchema())
+            || values.schema().type() != Schema.Type.ARRAY
+            || !isNumber(values.schema().valueSchema())) {
+          return null;
+        }
+        return (value, encoding) -> {
+          Struct sparse = (Struct) value;
+          return VectorsFactory.sparseVector(
+              (List<?>) sparse.get(indices), (List<?>) sparse.get(values));
+        };
+      default:
+        return null;
+    }
+  }
+
+  private static boolean isInteger(Schema schema) {
+    if (schema.name() != null) {
+      return false;
+    }
+    switch (schema.type()) {
+      case INT8:
+      case INT16:
+      case INT32:
+      case INT64:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  private static boolean isNumber(Schema schema) {
+    return isInteger(schema)
+        || (schema.name() == null
+            && (schema.type() == Schema.Type.FLOAT32 || schema.type() == Schema.Type.FLOAT64));
+  }
+
+  private static Converter[] converters(List<Field> fields) {
+    Converter[] converters = new Converter[fields.size()];
+    for (int i = 0; i < converters.length; i++) {
+      converters[i] = converter(fields.get(i).schema());
+    }
+    return converters;
+  }
+
+  /** Returns the conversion of values with the schema, null values included. */
+  static Converter converter(Schema schema) {
+    Converter converter = nonNullConverter(schema);
+    return value -> value == null ? nullValue() : converter.convert(value);
+  }
+
+  private static Converter nonNullConverter(Schema schema) {
+    // Logical types, such as Decimal or Timestamp, arrive as their Java types.
+    if (schema.name() != null && schema.type() != Schema.Type.STRUCT) {
+      return StructPointExtractor::generic;
+    }
+    switch (schema.type()) {
+      case INT8:
+      case INT16:
+      case INT32:
+      case INT64:
+        return value -> value(((Number) value).longValue());
+      case FLOAT32:
+        return value -> ValueMapFactory.floatNumber((Float) value);
+      case FLOAT64:
+        return value -> ValueMapFactory.number(((Number) value).doubleValue());
+      case BOOLEAN:
+        return value -> value((Boolean) value);
+      case STRING:
+        return value -> value((String) value);
+      case ARRAY:
+        Converter element = converter(schema.valueSchema());
+        return value -> {
+          List<?> list = (List<?>) value;
+          ListValue.Builder listValue = ListValue.newBuilder();
+          for (int i = 0; i < list.size(); i++) {
+            listValue.addValues(element.convert(list.get(i)));
+          }
+          return Value.newBuilder().setListValue(listValue).build();
+        };
+      case MAP:
+        Converter mapValue = converter(schema.valueSchema());
+        return value -> {
+          io.qdrant.client.grpc.JsonWithInt.Struct.Builder fields =
+              io.qdrant.client.grpc.JsonWithInt.Struct.newBuilder();
+          for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+            fields.putFields(String.valueOf(entry.getKey()), mapValue.convert(entry.getValue()));
+          }
+          return Value.newBuilder().setStructValue(fields).build();
+        };
+      case STRUCT:
+        List<Field> fields = schema.fields();
+        Converter[] converters = converters(fields);
+        return value -> {
+          Struct struct = (Struct) value;
+          io.qdrant.client.grpc.JsonWithInt.Struct.Builder structValue =
+              io.qdrant.client.grpc.JsonWithInt.Struct.newBuilder();
+          for (int i = 0; i < converters.length; i++) {
+            Field field = fields.get(i);
+            structValue.putFields(field.name(), converters[i].convert(struct.get(field)));
+          }
+          return Value.newBuilder().setStructValue(structValue).build();
+        };
+      default:
+        return StructPointExtractor::generic;
+    }
+  }
+
+  private static Value generic(Object value) {
+    try {
+      return ValueMapFactory.toValue(value);
+    } catch (JsonProcessingException e) {
+      throw new DataException("Could not convert value: " + value, e);
+    }
+  }
+}
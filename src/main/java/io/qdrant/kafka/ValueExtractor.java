@@ -14,15 +14,17 @@ import java.util.Map;
 import java.util.UUID;
 import org.apache.kafka.connect.errors.DataException;
 
-class ValueExtractor {
-  private static final String ID_KEY = "id";
-  private static final String COLLECTION_NAME_KEY = "collection_name";
-  private static final String VECTOR_KEY = "vector";
-  private static final String PAYLOAD_KEY = "payload";
-  private static final String[] REQUIRED_FIELDS = {"collection_name", "id"};
+class ValueExtractor implements PointExtractor {
+  static final String ID_KEY = "id";
+  static final String COLLECTION_NAME_KEY = "collection_name";
+  static final String VECTOR_KEY = "vector";
+  static final String PAYLOAD_KEY = "payload";
+  static final String[] REQUIRED_FIELDS = {"collection_name", "id"};
 
   private final Map<String, Value> valueMap;
   private final String collectionNameOverride;
+  private final VectorEncoding vectorEncoding;
+  private final PayloadProjections payloadProjections;
 
   ValueExtractor(Object object) throws InvalidProtocolBufferException, JsonProcessingException {
     this(object, null);
@@ -30,19 +32,34 @@ class ValueExtractor {
 
   ValueExtractor(Object object, String collectionNameOverride)
       throws InvalidProtocolBufferException, JsonProcessingException {
+    this(object, collectionNameOverride, VectorEncoding.FLOAT32, PayloadProjections.NONE);
+  }
+
+  ValueExtractor(
+      Object object,
+      String collectionNameOverride,
+      VectorEncoding vectorEncoding,
+      PayloadProjections payloadProjections)
+      throws InvalidProtocolBufferException, JsonProcessingException {
     // We turn the entire message into Map<String, Value>
     // This is a bit of a hack, but it's the easiest way to work with the data
     // We get the nice type checking of Value, and we can easily access the fields.
     this.valueMap = ValueMapFactory.valueMap(object);
     this.collectionNameOverride = collectionNameOverride;
+    this.vectorEncoding = vectorEncoding;
+    this.payloadProjections = payloadProjections;
   }
 
+  @Override
   public String getCollectionName() {
+    return collectionName(this.valueMap.get(COLLECTION_NAME_KEY), collectionNameOverride);
+  }
+
+  static String collectionName(Value collectionNameValue, String collectionNameOverride) {
     if (collectionNameOverride != null && !collectionNameOverride.isEmpty()) {
       return collectionNameOverride;
     }
 
-    Value collectionNameValue = this.valueMap.get(COLLECTION_NAME_KEY);
     if (collectionNameValue == null || collectionNameValue.hasNullValue()) {
       throw new DataException("'collection_name' value is required");
     }
@@ -56,8 +73,12 @@ class ValueExtractor {
     return collectionName;
   }
 
+  @Override
   public PointId getPointId() {
-    Value idCandidate = this.valueMap.get(ID_KEY);
+    return pointId(this.valueMap.get(ID_KEY));
+  }
+
+  static PointId pointId(Value idCandidate) {
     if (idCandidate == null || idCandidate.hasNullValue()) {
       throw new DataException("'id' value is required");
     }
@@ -97,7 +118,7 @@ class ValueExtractor {
 
     switch (payload.getKindCase()) {
       case STRUCT_VALUE:
-        return payload.getStructValue().getFieldsMap();
+        return payloadProjections.get(this).project(payload.getStructValue().getFieldsMap());
 
       case NULL_VALUE:
         return new HashMap<>();
@@ -114,9 +135,10 @@ class ValueExtractor {
       return Vectors.newBuilder().setVectors(NamedVectors.getDefaultInstance()).build();
     }
 
-    return VectorsFactory.vectors(vectorValue);
+    return VectorsFactory.vectors(vectorValue, vectorEncoding);
   }
 
+  @Override
   public PointStruct getPointStruct() {
     return PointStruct.newBuilder()
         .setId(getPointId())
@@ -125,15 +147,19 @@ class ValueExtractor {
         .build();
   }
 
+  @Override
   public void validateOptions() {
     for (String field : REQUIRED_FIELDS) {
-      if (!this.valueMap.containsKey(field) || this.valueMap.get(field) == null) {
-        throw new DataException(String.format("'%s' value is required", field));
-      }
-      Value value = this.valueMap.get(field);
-      if (value.hasNullValue()) {
-        throw new DataException(String.format("'%s' value cannot be null", field));
-      }
+      validateRequired(field, this.valueMap.get(field));
+    }
+  }
+
+  static void validateRequired(String field, Value value) {
+    if (value == null) {
+      throw new DataException(String.format("'%s' value is required", field));
+    }
+    if (value.hasNullValue()) {
+      throw new DataException(String.format("'%s' value cannot be null", field));
     }
   }
 }
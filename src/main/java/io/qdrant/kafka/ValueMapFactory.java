@@ -4,32 +4,265 @@ import static io.qdrant.client.ValueFactory.list;
 import static io.qdrant.client.ValueFactory.nullValue;
 import static io.qdrant.client.ValueFactory.value;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.protobuf.InvalidProtocolBufferException;
 import com.google.protobuf.util.JsonFormat;
+import io.qdrant.client.grpc.JsonWithInt.ListValue;
 import io.qdrant.client.grpc.JsonWithInt.Struct;
 import io.qdrant.client.grpc.JsonWithInt.Value;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.errors.DataException;
 
 /**
  * Helper class to convert Map<String, Object> into Map<String,
  * io.qdrant.client.grpc.JsonWithInt.Value>;
  */
-// We need to do some extra work to convert com.google.protobuf.Value to
-// io.qdrant.client.grpc.JsonWithInt.Value
-// Because, com.google.protobuf.util.JsonFormat.parser() only allows conversion to
+// Connect values (Map, Struct, List and primitives) are converted directly into
+// io.qdrant.client.grpc.JsonWithInt.Value. Only types Connect does not produce are serialized
+// through Jackson first.
+// The parse() overloads convert JSON strings and com.google.protobuf.Value, because
+// com.google.protobuf.util.JsonFormat.parser() only allows conversion to
 // com.google.protobuf.Value.
 final class ValueMapFactory {
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
   private ValueMapFactory() {}
 
   static final Map<String, Value> valueMap(Object object)
       throws InvalidProtocolBufferException, JsonProcessingException {
+    if (object == null) {
+      return new HashMap<>();
+    }
+
+    if (object instanceof Map) {
+      Map<?, ?> map = (Map<?, ?>) object;
+      Map<String, Value> valueMap = new HashMap<>();
+      for (Map.Entry<?, ?> entry : map.entrySet()) {
+        valueMap.put(String.valueOf(entry.getKey()), toValue(entry.getValue()));
+      }
+      return valueMap;
+    }
+
+    if (object instanceof org.apache.kafka.connect.data.Struct) {
+      org.apache.kafka.connect.data.Struct struct = (org.apache.kafka.connect.data.Struct) object;
+      Map<String, Value> valueMap = new HashMap<>();
+      for (Field field : struct.schema().fields()) {
+        valueMap.put(field.name(), toValue(struct.get(field)));
+      }
+      return valueMap;
+    }
+
+    Value value = toValue(object);
+    if (!value.hasStructValue()) {
+      throw new DataException("Record must be an object, found: " + value.getKindCase());
+    }
+    return new HashMap<>(value.getStructValue().getFieldsMap());
+  }
+
+  static final Value toValue(Object object) throws JsonProcessingException {
+    if (object == null) {
+      return nullValue();
+    }
+    if (object instanceof String) {
+      return value((String) object);
+    }
+    if (object instanceof Boolean) {
+      return value((boolean) object);
+    }
+    if (object instanceof Long
+        || object instanceof Integer
+        || object instanceof Short
+        || object instanceof Byte) {
+      return value(((Number) object).longValue());
+    }
+    if (object instanceof BigInteger) {
+      BigInteger bigInteger = (BigInteger) object;
+      return bigInteger.bitLength() < Long.SIZE
+          ? value(bigInteger.longValue())
+          : number(bigInteger.doubleValue());
+    }
+    if (object instanceof Float) {
+      return floatNumber((Float) object);
+    }
+    if (object instanceof Number) {
+      return number(((Number) object).doubleValue());
+    }
+    if (object instanceof Map) {
+      Struct.Builder structBuilder = Struct.newBuilder();
+      for (Map.Entry<?, ?> entry : ((Map<?, ?>) object).entrySet()) {
+        structBuilder.putFields(String.valueOf(entry.getKey()), toValue(entry.getValue()));
+      }
+      return Value.newBuilder().setStructValue(structBuilder).build();
+    }
+    if (object instanceof org.apache.kafka.connect.data.Struct) {
+      org.apache.kafka.connect.data.Struct struct = (org.apache.kafka.connect.data.Struct) object;
+      Struct.Builder structBuilder = Struct.newBuilder();
+      for (Field field : struct.schema().fields()) {
+        structBuilder.putFields(field.name(), toValue(struct.get(field)));
+      }
+      return Value.newBuilder().setStructValue(structBuilder).build();
+    }
+    if (object instanceof Collection) {
+      ListValue.Builder listBuilder = ListValue.newBuilder();
+      for (Object element : (Collection<?>) object) {
+        listBuilder.addValues(toValue(element));
+      }
+      return Value.newBuilder().setListValue(listBuilder).build();
+    }
+    if (object instanceof float[]) {
+      ListValue.Builder listBuilder = ListValue.newBuilder();
+      for (float element : (float[]) object) {
+        listBuilder.addValues(floatNumber(element));
+      }
+      return Value.newBuilder().setListValue(listBuilder).build();
+    }
+    if (object instanceof double[]) {
+      ListValue.Builder listBuilder = ListValue.newBuilder();
+      for (double element : (double[]) object) {
+        listBuilder.addValues(number(element));
+      }
+      return Value.newBuilder().setListValue(listBuilder).build();
+    }
+    if (object instanceof int[]) {
+      ListValue.Builder listBuilder = ListValue.newBuilder();
+      for (int element : (int[]) object) {
+        listBuilder.addValues(value((long) element));
+      }
+      return Value.newBuilder().setListValue(listBuilder).build();
+    }
+    if (object instanceof long[]) {
+      ListValue.Builder listBuilder = ListValue.newBuilder();
+      for (long element : (long[]) object) {
+        listBuilder.addValues(value(element));
+      }
+      return Value.newBuilder().setListValue(listBuilder).build();
+    }
+    if (object instanceof Object[]) {
+      ListValue.Builder listBuilder = ListValue.newBuilder();
+      for (Object element : (Object[]) object) {
+        listBuilder.addValues(toValue(element));
+      }
+      return Value.newBuilder().setListValue(listBuilder).build();
+    }
+    // Bytes and dates are represented the way Jackson serializes them.
+    if (object instanceof byte[]) {
+      return value(Base64.getEncoder().encodeToString((byte[]) object));
+    }
+    if (object instanceof ByteBuffer) {
+      ByteBuffer buffer = ((ByteBuffer) object).duplicate();
+      byte[] bytes = new byte[buffer.remaining()];
+      buffer.get(bytes);
+      return value(Base64.getEncoder().encodeToString(bytes));
+    }
+    if (object instanceof Date) {
+      return value(((Date) object).getTime());
+    }
+
+    return toValue(MAPPER.readTree(MAPPER.writeValueAsString(object)));
+  }
+
+  private static Value toValue(JsonNode node) {
+    switch (node.getNodeType()) {
+      case NULL:
+      case MISSING:
+        return nullValue();
+
+      case BOOLEAN:
+        return value(node.booleanValue());
+
+      case NUMBER:
+        return node.isIntegralNumber() && node.canConvertToLong()
+            ? value(node.longValue())
+            : number(node.doubleValue());
+
+      case OBJECT:
+        Struct.Builder structBuilder = Struct.newBuilder();
+        for (Map.Entry<String, JsonNode> entry : node.properties()) {
+          structBuilder.putFields(entry.getKey(), toValue(entry.getValue()));
+        }
+        return Value.newBuilder().setStructValue(structBuilder).build();
+
+      case ARRAY:
+        ListValue.Builder listBuilder = ListValue.newBuilder();
+        for (JsonNode element : node) {
+          listBuilder.addValues(toValue(element));
+        }
+        return Value.newBuilder().setListValue(listBuilder).build();
+
+      default:
+        return value(node.asText());
+    }
+  }
+
+  /** Reads the JSON value at the parser's current token, leaving the parser on its last token. */
+  static final Value toValue(JsonParser parser) throws IOException {
+    switch (parser.currentToken()) {
+      case VALUE_NULL:
+        return nullValue();
+
+      case VALUE_TRUE:
+        return value(true);
+
+      case VALUE_FALSE:
+        return value(false);
+
+      case VALUE_STRING:
+        return value(parser.getText());
+
+      case VALUE_NUMBER_INT:
+        return parser.getNumberType() == JsonParser.NumberType.BIG_INTEGER
+            ? number(parser.getDoubleValue())
+            : value(parser.getLongValue());
+
+      case VALUE_NUMBER_FLOAT:
+        return number(parser.getDoubleValue());
+
+      case START_OBJECT:
+        Struct.Builder structBuilder = Struct.newBuilder();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+          String key = parser.currentName();
+          parser.nextToken();
+          structBuilder.putFields(key, toValue(parser));
+        }
+        return Value.newBuilder().setStructValue(structBuilder).build();
+
+      case START_ARRAY:
+        ListValue.Builder listBuilder = ListValue.newBuilder();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+          listBuilder.addValues(toValue(parser));
+        }
+        return Value.newBuilder().setListValue(listBuilder).build();
+
+      default:
+        throw new DataException("Unexpected JSON token: " + parser.currentToken());
+    }
+  }
+
+  // Whole numbers are kept as integers, as they were when records were converted through JSON.
+  static Value number(double number) {
+    return (number % 1 == 0) ? value((long) number) : value(number);
+  }
 
-    ObjectMapper mapper = new ObjectMapper();
-    return parse(mapper.writeValueAsString(object));
+  /**
+   * Returns the number of a float, widened through its shortest decimal form, so that {@code 0.1f}
+   * is stored as {@code 0.1} rather than {@code 0.10000000149011612}, as JSON serialization did.
+   */
+  static Value floatNumber(float number) {
+    return number(Double.parseDouble(Float.toString(number)));
   }
 
   static final Map<String, Value> parse(String json) throws InvalidProtocolBufferException {
@@ -0,0 +1,90 @@
+package io.qdrant.kafka;
+
+import io.qdrant.client.grpc.Points.Vector;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+import java.util.Locale;
+import org.apache.kafka.connect.errors.DataException;
+
+/**
+ * The encoding of dense vectors given as bytes, such as a Connect {@code BYTES} field or a base64
+ * string: little-endian floats of 32 or 16 bits. Half-precision floats are widened to 32 bits.
+ */
+public enum VectorEncoding {
+  FLOAT32(Float.BYTES) {
+    @Override
+    Vector.Builder decode(ByteBuffer bytes) {
+      return VectorsFactory.denseVector(bytes);
+    }
+  },
+
+  FLOAT16(Short.BYTES) {
+    @Override
+    Vector.Builder decode(ByteBuffer bytes) {
+      return widen(bytes, VectorEncoding::halfToFloat);
+    }
+  },
+
+  // bfloat16 is the upper half of a 32-bit float.
+  BFLOAT16(Short.BYTES) {
+    @Override
+    Vector.Builder decode(ByteBuffer bytes) {
+      return widen(bytes, bits -> Float.intBitsToFloat(bits << 16));
+    }
+  };
+
+  /** Widens a 16-bit float to 32 bits. */
+  private interface Widening {
+    float widen(short bits);
+  }
+
+  private final int width;
+
+  VectorEncoding(int width) {
+    this.width = width;
+  }
+
+  /** Returns the dense vector of the remaining bytes, without consuming them. */
+  Vector.Builder vector(ByteBuffer bytes) throws DataException {
+    int length = bytes.remaining();
+    if (length == 0) {
+      throw new DataException("Dense vector cannot be empty");
+    }
+    if (length % width != 0) {
+      throw new DataException(
+          String.format(
+              "Dense vector of %s must have a multiple of %d bytes, found: %d",
+              name().toLowerCase(Locale.ROOT), width, length));
+    }
+    return decode(bytes);
+  }
+
+  abstract Vector.Builder decode(ByteBuffer bytes);
+
+  private static Vector.Builder widen(ByteBuffer bytes, Widening widening) {
+    ShortBuffer halves = bytes.duplicate().order(ByteOrder.LITTLE_ENDIAN).asShortBuffer();
+    float[] data = new float[halves.remaining()];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = widening.widen(halves.get(i));
+    }
+    return VectorsFactory.denseVector(data, data.length);
+  }
+
+  // IEEE 754 half precision: 1 sign bit, 5 exponent bits and 10 mantissa bits.
+  private static float halfToFloat(short bits) {
+    int sign = (bits & 0x8000) << 16;
+    int exponent = (bits >>> 10) & 0x1f;
+    int mantissa = bits & 0x3ff;
+    if (exponent == 0x1f) {
+      // Infinity or NaN.
+      return Float.intBitsToFloat(sign | 0x7f800000 | (mantissa << 13));
+    }
+    if (exponent == 0) {
+      // Zero or subnormal, mantissa * 2^-24.
+      float value = mantissa * 0x1p-24f;
+      return sign == 0 ? value : -value;
+    }
+    return Float.intBitsToFloat(sign | ((exponent + 112) << 23) | (mantissa << 13));
+  }
+}
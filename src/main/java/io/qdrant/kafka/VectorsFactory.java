@@ -1,5 +1,9 @@
 package io.qdrant.kafka;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.google.common.primitives.Floats;
+import com.google.common.primitives.Ints;
 import io.qdrant.client.grpc.JsonWithInt.ListValue;
 import io.qdrant.client.grpc.JsonWithInt.Struct;
 import io.qdrant.client.grpc.JsonWithInt.Value;
@@ -7,7 +11,12 @@ import io.qdrant.client.grpc.Points.NamedVectors;
 import io.qdrant.client.grpc.Points.SparseIndices;
 import io.qdrant.client.grpc.Points.Vector;
 import io.qdrant.client.grpc.Points.Vectors;
-import java.util.ArrayList;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.List;
 import java.util.Map;
 import org.apache.kafka.connect.errors.DataException;
@@ -60,18 +69,34 @@ import org.apache.kafka.connect.errors.DataException;
 //   }
 // }
 
+// Dense vectors can also be given as base64 bytes, little-endian floats in the configured
+// VectorEncoding. The same vector as above, in float32:
+// {
+//   "vector": {
+//     "some-name": "J/AqPSTEYTwzzuG8"
+//   }
+// }
+
 class VectorsFactory {
 
   public static Vectors vectors(Value vectorValue) throws DataException {
+    return vectors(vectorValue, VectorEncoding.FLOAT32);
+  }
+
+  public static Vectors vectors(Value vectorValue, VectorEncoding encoding) throws DataException {
     Vectors.Builder vectorsBuilder = Vectors.newBuilder();
 
     // Primitive dense vectors check
     if (vectorValue.hasListValue()) {
       vectorsBuilder.setVector(parseDenseVector(vectorValue.getListValue()));
 
+      // Binary dense vectors check
+    } else if (vectorValue.hasStringValue()) {
+      vectorsBuilder.setVector(parseBinaryVector(vectorValue.getStringValue(), encoding));
+
       // NamedVectors check
     } else if (vectorValue.hasStructValue()) {
-      vectorsBuilder.setVectors(parseNamedVectors(vectorValue.getStructValue()));
+      vectorsBuilder.setVectors(parseNamedVectors(vectorValue.getStructValue(), encoding));
     } else {
       throw new DataException("Invalid vector format");
     }
@@ -79,13 +104,16 @@ class VectorsFactory {
     return vectorsBuilder.build();
   }
 
-  private static NamedVectors parseNamedVectors(Struct struct) throws DataException {
+  private static NamedVectors parseNamedVectors(Struct struct, VectorEncoding encoding)
+      throws DataException {
     NamedVectors.Builder namedVectorsBuilder = NamedVectors.newBuilder();
     for (Map.Entry<String, Value> entry : struct.getFieldsMap().entrySet()) {
       String key = entry.getKey();
       Value value = entry.getValue();
       if (value.hasListValue()) {
         namedVectorsBuilder.putVectors(key, parseDenseVector(value.getListValue()));
+      } else if (value.hasStringValue()) {
+        namedVectorsBuilder.putVectors(key, parseBinaryVector(value.getStringValue(), encoding));
       } else if (value.hasStructValue()) {
         namedVectorsBuilder.putVectors(key, parseSparseVector(value.getStructValue()));
       } else {
@@ -95,43 +123,60 @@ class VectorsFactory {
     return namedVectorsBuilder.build();
   }
 
+  private static Vector parseBinaryVector(String base64, VectorEncoding encoding)
+      throws DataException {
+    byte[] bytes;
+    try {
+      bytes = Base64.getDecoder().decode(base64);
+    } catch (IllegalArgumentException e) {
+      throw new DataException("Binary vector data must be a base64 string", e);
+    }
+    return encoding.vector(ByteBuffer.wrap(bytes)).build();
+  }
+
   private static Vector parseDenseVector(ListValue listValue) throws DataException {
-    if (listValue.getValuesCount() == 0) {
+    int dimension = listValue.getValuesCount();
+    if (dimension == 0) {
       throw new DataException("Dense vector cannot be empty");
     }
+    if (listValue.getValues(0).hasListValue()) {
+      return parseMultiDenseVector(listValue);
+    }
 
-    Vector.Builder vectorBuilder = Vector.newBuilder();
-    for (Value value : listValue.getValuesList()) {
-      if (value.hasListValue()) {
-        return parseMultiDenseVector(listValue);
-      }
-
-      if (value.hasDoubleValue()) {
-        vectorBuilder.addData((float) value.getDoubleValue());
-      } else if (value.hasIntegerValue()) {
-        vectorBuilder.addData((float) value.getIntegerValue());
-      } else {
-        throw new DataException("Dense vector data must be a list of numbers");
+    float[] data = new float[dimension];
+    for (int i = 0; i < dimension; i++) {
+      Value value = listValue.getValues(i);
+      switch (value.getKindCase()) {
+        case DOUBLE_VALUE:
+          data[i] = (float) value.getDoubleValue();
+          break;
+        case INTEGER_VALUE:
+          data[i] = (float) value.getIntegerValue();
+          break;
+        case LIST_VALUE:
+          throw new DataException("Multi vector data must be a list of lists of floats");
+        default:
+          throw new DataException("Dense vector data must be a list of numbers");
       }
     }
-    return vectorBuilder.build();
+    return denseVector(data, dimension).build();
   }
 
   private static Vector parseMultiDenseVector(ListValue listValue) throws DataException {
-    if (listValue.getValuesCount() == 0) {
+    int numRows = listValue.getValuesCount();
+    if (numRows == 0) {
       throw new DataException("Multi vector cannot be empty");
     }
 
-    Vector.Builder vectorBuilder = Vector.newBuilder();
-    int numRows = listValue.getValuesCount();
+    // The shape is checked before anything is copied, so that all rows fit in one buffer.
     int expectedDimension = -1;
-
-    for (Value row : listValue.getValuesList()) {
-      if (!row.hasListValue()) {
+    for (int row = 0; row < numRows; row++) {
+      Value rowValue = listValue.getValues(row);
+      if (!rowValue.hasListValue()) {
         throw new DataException("Multi vector data must be a list of lists of floats");
       }
 
-      int rowDimension = row.getListValue().getValuesCount();
+      int rowDimension = rowValue.getListValue().getValuesCount();
       if (rowDimension == 0) {
         throw new DataException("Multi vector rows cannot be empty");
       }
@@ -144,19 +189,27 @@ class VectorsFactory {
                 "Multi vector rows must have consistent dimensions (expected: %d, found: %d)",
                 expectedDimension, rowDimension));
       }
+    }
 
-      for (Value value : row.getListValue().getValuesList()) {
-        if (value.hasDoubleValue()) {
-          vectorBuilder.addData((float) value.getDoubleValue());
-        } else if (value.hasIntegerValue()) {
-          vectorBuilder.addData((float) value.getIntegerValue());
-        } else {
-          throw new DataException("Multi vector data must be a list of lists of numbers");
+    float[] data = new float[numRows * expectedDimension];
+    int size = 0;
+    for (int row = 0; row < numRows; row++) {
+      ListValue rowValue = listValue.getValues(row).getListValue();
+      for (int i = 0; i < expectedDimension; i++) {
+        Value value = rowValue.getValues(i);
+        switch (value.getKindCase()) {
+          case DOUBLE_VALUE:
+            data[size++] = (float) value.getDoubleValue();
+            break;
+          case INTEGER_VALUE:
+            data[size++] = (float) value.getIntegerValue();
+            break;
+          default:
+            throw new DataException("Multi vector data must be a list of lists of numbers");
         }
       }
     }
-    vectorBuilder.setVectorsCount(numRows);
-    return vectorBuilder.build();
+    return denseVector(data, size).setVectorsCount(numRows).build();
   }
 
   private static Vector parseSparseVector(Struct struct) throws DataException {
@@ -177,32 +230,308 @@ class VectorsFactory {
       throw new DataException("Sparse vector 'indices' field must be a list");
     }
 
-    Vector.Builder vectorBuilder = Vector.newBuilder();
-    SparseIndices.Builder sparseIndicesBuilder = SparseIndices.newBuilder();
-
     ListValue valuesValue = valuesField.getListValue();
-    vectorBuilder = parseDenseVector(valuesValue).toBuilder();
-
-    List<Integer> indicesList = new ArrayList<>();
     ListValue indicesValue = indicesField.getListValue();
-    for (Value value : indicesValue.getValuesList()) {
+
+    if (indicesValue.getValuesCount() != valuesValue.getValuesCount()) {
+      throw new DataException(
+          String.format(
+              "Sparse vector 'indices' and 'values' must have the same length (indices: %d, values:"
+                  + " %d)",
+              indicesValue.getValuesCount(), valuesValue.getValuesCount()));
+    }
+
+    int[] indices = new int[indicesValue.getValuesCount()];
+    for (int i = 0; i < indices.length; i++) {
+      Value value = indicesValue.getValues(i);
       if (!value.hasIntegerValue()) {
         throw new DataException("Indices must be a list of integers");
       }
-      indicesList.add((int) value.getIntegerValue());
+      indices[i] = (int) value.getIntegerValue();
+    }
+
+    return parseDenseVector(valuesValue).toBuilder()
+        .setIndices(sparseIndices(indices, indices.length))
+        .build();
+  }
+
+  /** Returns the dense vector of a list of numbers, such as a Connect array of floats. */
+  static Vector denseVector(List<?> numbers) throws DataException {
+    if (numbers.isEmpty()) {
+      throw new DataException("Dense vector cannot be empty");
+    }
+    float[] data = new float[numbers.size()];
+    for (int i = 0; i < data.length; i++) {
+      Object number = numbers.get(i);
+      if (number == null) {
+        throw new DataException("Dense vector data must be a list of numbers");
+      }
+      data[i] = ((Number) number).floatValue();
+    }
+    return denseVector(data, data.length).build();
+  }
+
+  /** Returns the dense vector of bytes in the encoding, such as a Connect bytes field. */
+  static Vector denseVector(Object bytes, VectorEncoding encoding) throws DataException {
+    ByteBuffer buffer =
+        bytes instanceof byte[] ? ByteBuffer.wrap((byte[]) bytes) : (ByteBuffer) bytes;
+    return encoding.vector(buffer).build();
+  }
+
+  /** Returns the multi vector of a list of lists of numbers, such as a Connect array of arrays. */
+  static Vector multiDenseVector(List<?> rows) throws DataException {
+    if (rows.isEmpty()) {
+      throw new DataException("Multi vector cannot be empty");
+    }
+
+    int expectedDimension = -1;
+    for (Object row : rows) {
+      if (row == null) {
+        throw new DataException("Multi vector data must be a list of lists of floats");
+      }
+      int rowDimension = ((List<?>) row).size();
+      if (rowDimension == 0) {
+        throw new DataException("Multi vector rows cannot be empty");
+      }
+      if (expectedDimension == -1) {
+        expectedDimension = rowDimension;
+      } else if (rowDimension != expectedDimension) {
+        throw new DataException(
+            String.format(
+                "Multi vector rows must have consistent dimensions (expected: %d, found: %d)",
+                expectedDimension, rowDimension));
+      }
+    }
+
+    float[] data = new float[rows.size() * expectedDimension];
+    int size = 0;
+    for (Object row : rows) {
+      for (Object number : (List<?>) row) {
+        if (number == null) {
+          throw new DataException("Multi vector data must be a list of lists of numbers");
+        }
+        data[size++] = ((Number) number).floatValue();
+      }
+    }
+    return denseVector(data, size).setVectorsCount(rows.size()).build();
+  }
+
+  /** Returns the sparse vector of lists of integer indices and of numbers. */
+  static Vector sparseVector(List<?> indices, List<?> values) throws DataException {
+    if (values == null) {
+      throw new DataException("Sparse vector 'values' field must be a list");
+    }
+    if (indices == null) {
+      throw new DataException("Sparse vector 'indices' field must be a list");
+    }
+    if (indices.size() != values.size()) {
+      throw new DataException(
+          String.format(
+              "Sparse vector 'indices' and 'values' must have the same length (indices: %d, values:"
+                  + " %d)",
+              indices.size(), values.size()));
+    }
+
+    int[] data = new int[indices.size()];
+    for (int i = 0; i < data.length; i++) {
+      Object index = indices.get(i);
+      if (index == null) {
+        throw new DataException("Indices must be a list of integers");
+      }
+      data[i] = ((Number) index).intValue();
+    }
+    return denseVector(values).toBuilder().setIndices(sparseIndices(data, data.length)).build();
+  }
+
+  /**
+   * Reads a vector from the parser, which must be positioned on the start of a JSON array or
+   * object, or on a base64 string. Numbers are read straight into float arrays without building
+   * intermediate values.
+   */
+  public static Vectors vectors(JsonParser parser) throws IOException, DataException {
+    return vectors(parser, VectorEncoding.FLOAT32);
+  }
+
+  public static Vectors vectors(JsonParser parser, VectorEncoding encoding)
+      throws IOException, DataException {
+    Vectors.Builder vectorsBuilder = Vectors.newBuilder();
+
+    if (parser.currentToken() == JsonToken.START_ARRAY) {
+      vectorsBuilder.setVector(readDenseVector(parser));
+    } else if (parser.currentToken() == JsonToken.VALUE_STRING) {
+      vectorsBuilder.setVector(readBinaryVector(parser, encoding));
+    } else if (parser.currentToken() == JsonToken.START_OBJECT) {
+      vectorsBuilder.setVectors(readNamedVectors(parser, encoding));
+    } else {
+      throw new DataException("Invalid vector format");
+    }
+
+    return vectorsBuilder.build();
+  }
+
+  private static NamedVectors readNamedVectors(JsonParser parser, VectorEncoding encoding)
+      throws IOException {
+    NamedVectors.Builder namedVectorsBuilder = NamedVectors.newBuilder();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String key = parser.currentName();
+      JsonToken token = parser.nextToken();
+      if (token == JsonToken.START_ARRAY) {
+        namedVectorsBuilder.putVectors(key, readDenseVector(parser));
+      } else if (token == JsonToken.VALUE_STRING) {
+        namedVectorsBuilder.putVectors(key, readBinaryVector(parser, encoding));
+      } else if (token == JsonToken.START_OBJECT) {
+        namedVectorsBuilder.putVectors(key, readSparseVector(parser));
+      } else {
+        throw new DataException("Named vector values must be either dense or sparse vectors");
+      }
+    }
+    return namedVectorsBuilder.build();
+  }
+
+  private static Vector readBinaryVector(JsonParser parser, VectorEncoding encoding)
+      throws IOException {
+    return encoding.vector(ByteBuffer.wrap(parser.getBinaryValue())).build();
+  }
+
+  private static Vector readDenseVector(JsonParser parser) throws IOException {
+    JsonToken token = parser.nextToken();
+    if (token == JsonToken.END_ARRAY) {
+      throw new DataException("Dense vector cannot be empty");
+    }
+    if (token == JsonToken.START_ARRAY) {
+      return readMultiDenseVector(parser);
+    }
+
+    float[] data = new float[64];
+    int size = 0;
+    while (token != JsonToken.END_ARRAY) {
+      if (token == JsonToken.START_ARRAY) {
+        throw new DataException("Multi vector data must be a list of lists of floats");
+      }
+      if (!token.isNumeric()) {
+        throw new DataException("Dense vector data must be a list of numbers");
+      }
+      if (size == data.length) {
+        data = Arrays.copyOf(data, size * 2);
+      }
+      data[size++] = (float) parser.getDoubleValue();
+      token = parser.nextToken();
+    }
+    return denseVector(data, size).build();
+  }
+
+  // The parser is positioned on the start of the first row.
+  private static Vector readMultiDenseVector(JsonParser parser) throws IOException {
+    float[] data = new float[256];
+    int size = 0;
+    int numRows = 0;
+    int expectedDimension = -1;
+
+    JsonToken token = parser.currentToken();
+    while (token != JsonToken.END_ARRAY) {
+      if (token != JsonToken.START_ARRAY) {
+        throw new DataException("Multi vector data must be a list of lists of floats");
+      }
+
+      int rowDimension = 0;
+      while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+        if (!token.isNumeric()) {
+          throw new DataException("Multi vector data must be a list of lists of numbers");
+        }
+        if (size == data.length) {
+          data = Arrays.copyOf(data, size * 2);
+        }
+        data[size++] = (float) parser.getDoubleValue();
+        rowDimension++;
+      }
+
+      if (rowDimension == 0) {
+        throw new DataException("Multi vector rows cannot be empty");
+      }
+
+      if (expectedDimension == -1) {
+        expectedDimension = rowDimension;
+      } else if (rowDimension != expectedDimension) {
+        throw new DataException(
+            String.format(
+                "Multi vector rows must have consistent dimensions (expected: %d, found: %d)",
+                expectedDimension, rowDimension));
+      }
+
+      numRows++;
+      token = parser.nextToken();
     }
+    return denseVector(data, size).setVectorsCount(numRows).build();
+  }
 
-    if (indicesList.size() != valuesValue.getValuesCount()) {
+  private static Vector readSparseVector(JsonParser parser) throws IOException {
+    Vector values = null;
+    int[] indices = null;
+    int indicesCount = 0;
+
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String key = parser.currentName();
+      JsonToken token = parser.nextToken();
+      if (key.equals("values")) {
+        if (token != JsonToken.START_ARRAY) {
+          throw new DataException("Sparse vector 'values' field must be a list");
+        }
+        values = readDenseVector(parser);
+      } else if (key.equals("indices")) {
+        if (token != JsonToken.START_ARRAY) {
+          throw new DataException("Sparse vector 'indices' field must be a list");
+        }
+        indices = new int[64];
+        indicesCount = 0;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+          if (parser.currentToken() != JsonToken.VALUE_NUMBER_INT) {
+            throw new DataException("Indices must be a list of integers");
+          }
+          if (indicesCount == indices.length) {
+            indices = Arrays.copyOf(indices, indicesCount * 2);
+          }
+          indices[indicesCount++] = (int) parser.getLongValue();
+        }
+      } else {
+        parser.skipChildren();
+      }
+    }
+
+    if (values == null || indices == null) {
+      throw new DataException("Sparse vector must contain 'indices' and 'values' fields");
+    }
+
+    if (indicesCount != values.getDataCount()) {
       throw new DataException(
           String.format(
               "Sparse vector 'indices' and 'values' must have the same length (indices: %d, values:"
                   + " %d)",
-              indicesList.size(), valuesValue.getValuesCount()));
+              indicesCount, values.getDataCount()));
     }
 
-    sparseIndicesBuilder.addAllData(indicesList);
-    vectorBuilder.setIndices(sparseIndicesBuilder.build());
+    return values.toBuilder().setIndices(sparseIndices(indices, indicesCount)).build();
+  }
+
+  /**
+   * Returns a builder holding the first {@code size} floats of {@code data}. The repeated field has
+   * no primitive bulk setter, so the floats are added through a list view of the array.
+   */
+  static Vector.Builder denseVector(float[] data, int size) {
+    return Vector.newBuilder().addAllData(Floats.asList(data).subList(0, size));
+  }
+
+  /**
+   * Returns a builder holding the remaining bytes of {@code floats}, which are little-endian 32-bit
+   * floats, without consuming them.
+   */
+  static Vector.Builder denseVector(ByteBuffer floats) {
+    FloatBuffer buffer = floats.duplicate().order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+    float[] data = new float[buffer.remaining()];
+    buffer.get(data);
+    return denseVector(data, data.length);
+  }
 
-    return vectorBuilder.build();
+  private static SparseIndices sparseIndices(int[] indices, int size) {
+    return SparseIndices.newBuilder().addAllData(Ints.asList(indices).subList(0, size)).build();
   }
 }
@@ -0,0 +1,258 @@
+package io.qdrant.kafka;
+
+import com.google.protobuf.CodedOutputStream;
+import io.qdrant.client.grpc.Collections.ShardKey;
+import io.qdrant.client.grpc.Common.PointId;
+import io.qdrant.client.grpc.Points.PointStruct;
+import io.qdrant.client.grpc.Points.PointsUpdateOperation;
+import io.qdrant.client.grpc.Points.UpsertPoints;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import org.apache.kafka.connect.errors.DataException;
+import org.apache.kafka.connect.sink.SinkRecord;
+
+/**
+ * Collects the writes of a batch of records per collection and shard key, keeping only the last
+ * write to each point of a collection, whatever the shard key of the earlier writes. Partial
+ * updates are folded into an earlier upsert of the point, or else kept in order. Upserts, deletes
+ * and partial updates of a collection and shard key are then sent as requests bounded in points and
+ * bytes, so that every request goes to a single shard.
+ */
+class WriteBatch {
+
+  // Room for the fields of a request other than the collection name and the points.
+  private static final int REQUEST_OVERHEAD = 32;
+
+  private final Map<Target, Map<PointId, PointWrite>> targets = new LinkedHashMap<>();
+  // The target of every point, per collection, as tombstones may have no shard key.
+  private final Map<String, Map<PointId, Target>> pointTargets = new HashMap<>();
+  private final int maxPoints;
+  private final int maxBytes;
+  private int points;
+  private long bytes;
+
+  WriteBatch() {
+    this(Integer.MAX_VALUE, Integer.MAX_VALUE);
+  }
+
+  WriteBatch(int maxPoints, int maxBytes) {
+    this.maxPoints = maxPoints;
+    this.maxBytes = maxBytes;
+  }
+
+  void upsert(String collectionName, PointStruct point, SinkRecord record) throws DataException {
+    upsert(collectionName, null, point, record);
+  }
+
+  void upsert(String collectionName, ShardKey shardKey, PointStruct point, SinkRecord record)
+      throws DataException {
+    upsert(collectionName, shardKey, point, 0, 0, record);
+  }
+
+  void upsert(
+      String collectionName,
+      ShardKey shardKey,
+      PointStruct point,
+      long contentHash,
+      long cacheSequence,
+      SinkRecord record)
+      throws DataException {
+    add(
+        new Target(collectionName, shardKey),
+        PointWrite.upsert(point, contentHash, cacheSequence, record));
+  }
+
+  void delete(String collectionName, PointId pointId, SinkRecord record) throws DataException {
+    delete(collectionName, null, pointId, record);
+  }
+
+  void delete(String collectionName, ShardKey shardKey, PointId pointId, SinkRecord record)
+      throws DataException {
+    add(new Target(collectionName, shardKey), PointWrite.delete(pointId, record));
+  }
+
+  void update(
+      String collectionName,
+      ShardKey shardKey,
+      PointId pointId,
+      PointsUpdateOperation update,
+      SinkRecord record)
+      throws DataException {
+    add(new Target(collectionName, shardKey), PointWrite.update(pointId, update, record));
+  }
+
+  private void add(Target target, PointWrite write) throws DataException {
+    Map<PointId, Target> collectionTargets =
+        pointTargets.computeIfAbsent(target.collectionName, k -> new HashMap<>());
+    Target previousTarget = collectionTargets.get(write.getPointId());
+    Map<PointId, PointWrite> writes = targets.computeIfAbsent(target, k -> new LinkedHashMap<>());
+    Map<PointId, PointWrite> previousWrites =
+        previousTarget == null ? null : targets.get(previousTarget);
+    PointWrite previous = previousWrites == null ? null : previousWrites.get(write.getPointId());
+    PointWrite merged = previous == null ? write : write.supersede(previous);
+    long size = (long) target.requestOverhead() + merged.getSerializedSize();
+    if (size > maxBytes) {
+      if (writes.isEmpty()) {
+        targets.remove(target);
+      }
+      throw new DataException(
+          String.format(
+              "Point of %d bytes does not fit in a write request of at most %d bytes",
+              size, maxBytes));
+    }
+    // Re-inserting moves the point to the end, after any write it superseded. A write to another
+    // shard key moves the point to the target of the later write.
+    if (previous != null) {
+      previousWrites.remove(write.getPointId());
+      if (previousWrites.isEmpty() && !previousTarget.equals(target)) {
+        targets.remove(previousTarget);
+      }
+    }
+    writes.put(write.getPointId(), merged);
+    collectionTargets.put(write.getPointId(), target);
+    if (previous == null) {
+      points++;
+    } else {
+      bytes -= previous.getSerializedSize();
+    }
+    bytes += merged.getSerializedSize();
+  }
+
+  /** Adds the writes of the other batch, which supersede the writes to the same points. */
+  void addAll(WriteBatch other) throws DataException {
+    addAll(
+        other,
+        (collectionName, write, cause) -> {
+          throw cause;
+        });
+  }
+
+  /**
+   * Adds the writes of the other batch, which supersede the writes to the same points. Writes that
+   * no longer fit in a request once merged with an earlier write are passed to the handler.
+   */
+  void addAll(WriteBatch other, RejectedWrites rejected) {
+    other.targets.forEach(
+        (target, writes) -> {
+          for (PointWrite write : writes.values()) {
+            try {
+              add(target, write);
+            } catch (DataException e) {
+              rejected.reject(target.collectionName, write, e);
+            }
+          }
+        });
+  }
+
+  boolean isEmpty() {
+    return targets.isEmpty();
+  }
+
+  /** Returns the number of points written. */
+  int size() {
+    return points;
+  }
+
+  /** Returns the serialized size of the writes, without the overhead of the requests. */
+  long getSerializedSize() {
+    return bytes;
+  }
+
+  /**
+   * Returns the requests for the collected writes. Every point is written by at most one request,
+   * so the requests of a collection are independent of each other.
+   */
+  List<WriteRequest> getRequests() {
+    List<WriteRequest> requests = new ArrayList<>();
+    targets.forEach(
+        (target, writes) -> {
+          List<PointWrite> upserts = new ArrayList<>();
+          List<PointWrite> deletes = new ArrayList<>();
+          List<PointWrite> updates = new ArrayList<>();
+          for (PointWrite write : writes.values()) {
+            (write.isUpdate() ? updates : write.isDelete() ? deletes : upserts).add(write);
+          }
+          split(target, upserts, WriteRequest::upsert, requests);
+          split(target, deletes, WriteRequest::delete, requests);
+          split(target, updates, WriteRequest::update, requests);
+        });
+    return requests;
+  }
+
+  private void split(
+      Target target,
+      List<PointWrite> writes,
+      RequestFactory factory,
+      List<WriteRequest> requests) {
+    int overhead = target.requestOverhead();
+    List<PointWrite> chunk = new ArrayList<>();
+    long chunkBytes = overhead;
+    for (PointWrite write : writes) {
+      int size = write.getSerializedSize();
+      if (!chunk.isEmpty() && (chunk.size() == maxPoints || chunkBytes + size > maxBytes)) {
+        requests.add(factory.create(target.collectionName, target.shardKey, chunk));
+        chunk = new ArrayList<>();
+        chunkBytes = overhead;
+      }
+      chunk.add(write);
+      chunkBytes += size;
+    }
+    if (!chunk.isEmpty()) {
+      requests.add(factory.create(target.collectionName, target.shardKey, chunk));
+    }
+  }
+
+  @FunctionalInterface
+  private interface RequestFactory {
+    WriteRequest create(String collectionName, ShardKey shardKey, List<PointWrite> writes);
+  }
+
+  /** Receives the writes that could not be added to a batch. */
+  interface RejectedWrites {
+    void reject(String collectionName, PointWrite write, DataException cause);
+  }
+
+  /** The collection and the shard key, if any, that a request is sent to. */
+  private static final class Target {
+    private final String collectionName;
+    private final ShardKey shardKey;
+
+    private Target(String collectionName, ShardKey shardKey) {
+      this.collectionName = collectionName;
+      this.shardKey = shardKey;
+    }
+
+    private int requestOverhead() {
+      int size =
+          CodedOutputStream.computeStringSize(
+                  UpsertPoints.COLLECTION_NAME_FIELD_NUMBER, collectionName)
+              + REQUEST_OVERHEAD;
+      if (shardKey != null) {
+        size +=
+            CodedOutputStream.computeMessageSize(
+                UpsertPoints.SHARD_KEY_SELECTOR_FIELD_NUMBER,
+                WriteRequest.shardKeySelector(shardKey));
+      }
+      return size;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Target)) {
+        return false;
+      }
+      Target target = (Target) o;
+      return collectionName.equals(target.collectionName)
+          && Objects.equals(shardKey, target.shardKey);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(collectionName, shardKey);
+    }
+  }
+}
@@ -0,0 +1,95 @@
+package io.qdrant.kafka;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.connect.sink.SinkRecord;
+
+/**
+ * Buffers writes across calls to {@link QdrantSinkTask#put}, so that records of low-traffic topics
+ * are sent in fewer, larger requests. Writes are kept per topic partition, so that a rebalance
+ * only flushes the writes of the partitions that are closed.
+ *
+ * <p>A write that no longer fits in a request once the batches of the partitions are merged, such
+ * as a partial update folded into an upsert, is passed to the rejected writes handler.
+ */
+class WriteBuffer {
+
+  private final Map<TopicPartition, WriteBatch> batches = new LinkedHashMap<>();
+  private final Map<TopicPartition, Long> firstWrites = new HashMap<>();
+  private final int maxPoints;
+  private final int maxBytes;
+  private final long lingerMs;
+  private final WriteBatch.RejectedWrites rejected;
+
+  WriteBuffer(int maxPoints, int maxBytes, long lingerMs) {
+    this(
+        maxPoints,
+        maxBytes,
+        lingerMs,
+        (collectionName, write, cause) -> {
+          throw cause;
+        });
+  }
+
+  WriteBuffer(int maxPoints, int maxBytes, long lingerMs, WriteBatch.RejectedWrites rejected) {
+    this.maxPoints = maxPoints;
+    this.maxBytes = maxBytes;
+    this.lingerMs = lingerMs;
+    this.rejected = rejected;
+  }
+
+  /** Returns the batch to add the write of the record to. */
+  WriteBatch batch(SinkRecord record, long nowMs) {
+    TopicPartition partition = OffsetTracker.partition(record);
+    firstWrites.putIfAbsent(partition, nowMs);
+    return batches.computeIfAbsent(partition, k -> new WriteBatch(maxPoints, maxBytes));
+  }
+
+  /**
+   * Returns whether the buffered writes should be sent, because they fill a request or the oldest
+   * of them has lingered long enough.
+   */
+  boolean isReady(long nowMs) {
+    if (batches.isEmpty()) {
+      return false;
+    }
+    if (nowMs - Collections.min(firstWrites.values()) >= lingerMs) {
+      return true;
+    }
+    int points = 0;
+    long bytes = 0;
+    for (WriteBatch batch : batches.values()) {
+      points += batch.size();
+      bytes += batch.getSerializedSize();
+    }
+    return points >= maxPoints || bytes >= maxBytes;
+  }
+
+  /** Removes and returns the requests for all buffered writes. */
+  List<WriteRequest> drain() {
+    WriteBatch merged = new WriteBatch(maxPoints, maxBytes);
+    batches.values().forEach(batch -> merged.addAll(batch, rejected));
+    batches.clear();
+    firstWrites.clear();
+    return merged.getRequests();
+  }
+
+  /** Removes and returns the requests for the buffered writes of the given partitions. */
+  List<WriteRequest> drain(Collection<TopicPartition> partitions) {
+    WriteBatch merged = new WriteBatch(maxPoints, maxBytes);
+    for (TopicPartition partition : partitions) {
+      WriteBatch batch = batches.remove(partition);
+      firstWrites.remove(partition);
+      if (batch != null) {
+        merged.addAll(batch, rejected);
+      }
+    }
+    return merged.getRequests();
+  }
+}
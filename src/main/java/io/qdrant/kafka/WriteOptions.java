@@ -0,0 +1,89 @@
+package io.qdrant.kafka;
+
+import io.qdrant.client.grpc.Points.WriteOrdering;
+import io.qdrant.client.grpc.Points.WriteOrderingType;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import org.apache.kafka.common.config.ConfigException;
+
+/**
+ * The wait and ordering options of writes, connector-wide and overridden per collection with the
+ * {@code qdrant.write.wait.<collection>} and {@code qdrant.write.ordering.<collection>} settings.
+ */
+final class WriteOptions {
+
+  static final WriteOptions DEFAULT = new WriteOptions(true, ordering("weak"), Map.of(), Map.of());
+
+  private final boolean wait;
+  private final WriteOrdering ordering;
+  private final Map<String, Boolean> waits;
+  private final Map<String, WriteOrdering> orderings;
+
+  private WriteOptions(
+      boolean wait,
+      WriteOrdering ordering,
+      Map<String, Boolean> waits,
+      Map<String, WriteOrdering> orderings) {
+    this.wait = wait;
+    this.ordering = ordering;
+    this.waits = waits;
+    this.orderings = orderings;
+  }
+
+  static WriteOptions from(QdrantSinkConfig config) throws ConfigException {
+    Map<String, Boolean> waits = new HashMap<>();
+    config
+        .originalsWithPrefix(QdrantSinkConfig.WRITE_WAIT + ".")
+        .forEach(
+            (collectionName, value) -> {
+              String wait = String.valueOf(value).trim().toLowerCase(Locale.ROOT);
+              if (!wait.equals("true") && !wait.equals("false")) {
+                throw new ConfigException(
+                    QdrantSinkConfig.WRITE_WAIT + "." + collectionName, value, "Must be a boolean");
+              }
+              waits.put(collectionName, Boolean.parseBoolean(wait));
+            });
+
+    Map<String, WriteOrdering> orderings = new HashMap<>();
+    config
+        .originalsWithPrefix(QdrantSinkConfig.WRITE_ORDERING + ".")
+        .forEach(
+            (collectionName, value) -> {
+              try {
+                orderings.put(collectionName, ordering(String.valueOf(value)));
+              } catch (IllegalArgumentException e) {
+                throw new ConfigException(
+                    QdrantSinkConfig.WRITE_ORDERING + "." + collectionName,
+                    value,
+                    "Must be one of weak, medium or strong");
+              }
+            });
+
+    return new WriteOptions(
+        config.isWriteWait(), ordering(config.getWriteOrdering()), waits, orderings);
+  }
+
+  /** Returns whether writes to the collection wait until they are applied. */
+  boolean isWait(String collectionName) {
+    return waits.getOrDefault(collectionName, wait);
+  }
+
+  WriteOrdering getOrdering(String collectionName) {
+    return orderings.getOrDefault(collectionName, ordering);
+  }
+
+  private static WriteOrdering ordering(String ordering) throws IllegalArgumentException {
+    String type = ordering.trim().toLowerCase(Locale.ROOT);
+    switch (type) {
+      case "weak":
+        return WriteOrdering.newBuilder().setType(WriteOrderingType.Weak).build();
+      case "medium":
+        return WriteOrdering.newBuilder().setType(WriteOrderingType.Medium).build();
+      case "strong":
+        return WriteOrdering.newBuilder().setType(WriteOrderingType.Strong).build();
+      default:
+        throw new IllegalArgumentException("Unknown write ordering: " + ordering);
+    }
+  }
+}
@@ -0,0 +1,433 @@
+package io.qdrant.kafka;
+
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import io.qdrant.client.grpc.Common.PointId;
+import io.qdrant.client.grpc.Points.UpdateResult;
+import io.qdrant.client.grpc.Points.UpdateStatus;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.apache.kafka.connect.errors.ConnectException;
+
+/**
+ * Sends write requests to Qdrant asynchronously, with at most a fixed number of requests in flight
+ * in total and per collection.
+ *
+ * <p>Requests wait in a queue until they can be sent, so a slow collection only holds up its own
+ * requests while the requests of other collections go ahead. A request that touches a point of an
+ * earlier request for the same collection is only queued once that request has completed, so
+ * writes to a single point reach Qdrant in Kafka order.
+ *
+ * <p>Requests failing with a transient error are sent again after a backoff, keeping their place
+ * in the pipeline. Requests that Qdrant rejects are split in halves and sent again, within the
+ * budget of the retry policy, so that only the records of the failing points are reported.
+ * Requests that run out of retries are kept until the task thread collects them with {@link
+ * #drainExhausted()}, along with the later requests to their points, which are held back rather
+ * than sent ahead of the stale writes. The other failed requests are kept until the task thread
+ * collects them with {@link #drainFailures()}.
+ */
+class WritePipeline {
+
+  private final QdrantGrpc qdrantGrpc;
+  private final OffsetTracker offsetTracker;
+  private final SinkMetrics metrics;
+  private final RetryPolicy retryPolicy;
+  private final PointCache cache;
+  private final ScheduledExecutorService retries;
+  private final int maxInFlight;
+  private final int maxInFlightPerCollection;
+  private final int maxPending;
+  private final Map<String, Map<PointId, ListenableFuture<Boolean>>> lastWrites = new HashMap<>();
+  private final Map<String, Integer> collectionsInFlight = new HashMap<>();
+  private final Deque<PendingWrite> ready = new ArrayDeque<>();
+  private final Queue<FailedWrite> failures = new ConcurrentLinkedQueue<>();
+  private final Queue<WriteRequest> exhausted = new ConcurrentLinkedQueue<>();
+  private int pending;
+  private int inFlight;
+
+  WritePipeline(QdrantGrpc qdrantGrpc, OffsetTracker offsetTracker, int maxInFlight) {
+    this(qdrantGrpc, offsetTracker, maxInFlight, maxInFlight, maxInFlight);
+  }
+
+  WritePipeline(
+      QdrantGrpc qdrantGrpc,
+      OffsetTracker offsetTracker,
+      int maxInFlight,
+      int maxInFlightPerCollection,
+      int maxPending) {
+    this(
+        qdrantGrpc,
+        offsetTracker,
+        SinkMetrics.noop(),
+        RetryPolicy.NONE,
+        maxInFlight,
+        maxInFlightPerCollection,
+        maxPending);
+  }
+
+  WritePipeline(
+      QdrantGrpc qdrantGrpc,
+      OffsetTracker offsetTracker,
+      SinkMetrics metrics,
+      RetryPolicy retryPolicy,
+      int maxInFlight,
+      int maxInFlightPerCollection,
+      int maxPending) {
+    this(
+        qdrantGrpc,
+        offsetTracker,
+        metrics,
+        retryPolicy,
+        PointCache.DISABLED,
+        maxInFlight,
+        maxInFlightPerCollection,
+        maxPending);
+  }
+
+  WritePipeline(
+      QdrantGrpc qdrantGrpc,
+      OffsetTracker offsetTracker,
+      SinkMetrics metrics,
+      RetryPolicy retryPolicy,
+      PointCache cache,
+      int maxInFlight,
+      int maxInFlightPerCollection,
+      int maxPending) {
+    this.qdrantGrpc = qdrantGrpc;
+    this.offsetTracker = offsetTracker;
+    this.metrics = metrics;
+    this.retryPolicy = retryPolicy;
+    this.cache = cache;
+    this.retries =
+        retryPolicy.getMaxRetries() > 0
+            ? Executors.newSingleThreadScheduledExecutor(
+                runnable -> {
+                  Thread thread = new Thread(runnable, "qdrant-write-retries");
+                  thread.setDaemon(true);
+                  return thread;
+                })
+            : null;
+    this.maxInFlight = maxInFlight;
+    this.maxInFlightPerCollection = maxInFlightPerCollection;
+    this.maxPending = maxPending;
+  }
+
+  /** Queues the request, blocking while the maximum number of requests are pending. */
+  void submit(WriteRequest request) throws InterruptedException {
+    PendingWrite write = new PendingWrite(request, retryPolicy.getMaxSplitRequests());
+    List<ListenableFuture<Boolean>> previous = register(write);
+    offsetTracker.track(request.getRecords());
+
+    if (previous.isEmpty()) {
+      enqueue(write);
+    } else {
+      Futures.whenAllComplete(previous)
+          .run(
+              () -> {
+                if (previous.stream().anyMatch(Futures::getUnchecked)) {
+                  holdBack(write);
+                } else {
+                  enqueue(write);
+                }
+              },
+              directExecutor());
+    }
+  }
+
+  /** Waits until every submitted request has completed. */
+  synchronized void await() throws InterruptedException {
+    while (pending > 0) {
+      wait();
+    }
+  }
+
+  /**
+   * Waits until every submitted request has completed or the timeout elapses.
+   *
+   * @return {@code true} if no request is pending anymore
+   */
+  synchronized boolean await(long timeoutMs) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+    while (pending > 0) {
+      long remaining = deadline - System.nanoTime();
+      if (remaining <= 0) {
+        return false;
+      }
+      TimeUnit.NANOSECONDS.timedWait(this, remaining);
+    }
+    return true;
+  }
+
+  /** Removes and returns the requests that failed since the last call. */
+  List<FailedWrite> drainFailures() {
+    List<FailedWrite> drained = new ArrayList<>();
+    FailedWrite failure;
+    while ((failure = failures.poll()) != null) {
+      drained.add(failure);
+    }
+    return drained;
+  }
+
+  /**
+   * Removes and returns the requests that kept failing with a transient error since the last call,
+   * followed by the requests to their points that were held back, in the order they were submitted.
+   * Their records are still tracked as pending, so the caller has to submit them again in that
+   * order or complete them.
+   */
+  List<WriteRequest> drainExhausted() {
+    List<WriteRequest> drained = new ArrayList<>();
+    WriteRequest request;
+    while ((request = exhausted.poll()) != null) {
+      drained.add(request);
+    }
+    return drained;
+  }
+
+  /** Stops sending retries, requests waiting for a retry are left pending. */
+  void close() {
+    if (retries != null) {
+      retries.shutdownNow();
+    }
+  }
+
+  private synchronized List<ListenableFuture<Boolean>> register(PendingWrite write)
+      throws InterruptedException {
+    while (pending >= maxPending) {
+      wait();
+    }
+    pending++;
+    Map<PointId, ListenableFuture<Boolean>> collectionWrites =
+        lastWrites.computeIfAbsent(write.request.getCollectionName(), k -> new HashMap<>());
+    Set<ListenableFuture<Boolean>> previous = new HashSet<>();
+    for (PointId pointId : write.request.getPointIds()) {
+      ListenableFuture<Boolean> last = collectionWrites.put(pointId, write.done);
+      if (last != null) {
+        previous.add(last);
+      }
+    }
+    return new ArrayList<>(previous);
+  }
+
+  // A request after an exhausted one to the same point is not sent, it is returned along with it,
+  // so that the task submits both again in order instead of the stale write overtaking this one.
+  private void holdBack(PendingWrite write) {
+    write.exhausted = true;
+    exhausted.add(write.request);
+    cache.failed(write.request);
+    complete(write, false);
+  }
+
+  private void enqueue(PendingWrite write) {
+    synchronized (this) {
+      ready.add(write);
+    }
+    dispatch();
+  }
+
+  // Sends the queued requests, oldest first, for as long as their collection has room.
+  private void dispatch() {
+    List<PendingWrite> sendable = new ArrayList<>();
+    synchronized (this) {
+      Iterator<PendingWrite> iterator = ready.iterator();
+      while (inFlight < maxInFlight && iterator.hasNext()) {
+        PendingWrite write = iterator.next();
+        String collectionName = write.request.getCollectionName();
+        int collectionInFlight = collectionsInFlight.getOrDefault(collectionName, 0);
+        if (collectionInFlight < maxInFlightPerCollection) {
+          iterator.remove();
+          inFlight++;
+          collectionsInFlight.put(collectionName, collectionInFlight + 1);
+          sendable.add(write);
+        }
+      }
+    }
+    sendable.forEach(this::send);
+  }
+
+  private void send(PendingWrite write) {
+    metrics.requestSent(write.request);
+    long start = System.nanoTime();
+    ListenableFuture<UpdateResult> result;
+    try {
+      result = write.request.send(qdrantGrpc);
+    } catch (RuntimeException e) {
+      result = Futures.immediateFailedFuture(e);
+    }
+
+    Futures.addCallback(
+        result,
+        new FutureCallback<UpdateResult>() {
+          @Override
+          public void onSuccess(UpdateResult updateResult) {
+            // Writes without wait are acknowledged once they are in the write-ahead log.
+            UpdateStatus status = updateResult.getStatus();
+            if (status != UpdateStatus.Completed && status != UpdateStatus.Acknowledged) {
+              onFailure(
+                  new ConnectException(
+                      "Qdrant did not accept the "
+                          + write.request.getOperation()
+                          + " request, status: "
+                          + status));
+              return;
+            }
+            metrics.requestCompleted(write.request, System.nanoTime() - start, true);
+            cache.written(write.request);
+            offsetTracker.complete(write.request.getRecords());
+            finish(write);
+          }
+
+          @Override
+          public void onFailure(Throwable t) {
+            metrics.requestCompleted(write.request, System.nanoTime() - start, false);
+            if (!retryPolicy.isRetryable(t)) {
+              if (split(write)) {
+                return;
+              }
+              failures.add(new FailedWrite(write.request, t));
+            } else if (!retry(write)) {
+              exhausted.add(write.request);
+              write.root.exhausted = true;
+            } else {
+              return;
+            }
+            cache.failed(write.request);
+            finish(write);
+          }
+        },
+        directExecutor());
+  }
+
+  // Sends the request again after a backoff, it stays in flight in the meantime.
+  private boolean retry(PendingWrite write) {
+    if (write.retries >= retryPolicy.getMaxRetries()) {
+      return false;
+    }
+    long backoffMs = retryPolicy.backoffMs(write.retries++);
+    try {
+      retries.schedule(() -> send(write), backoffMs, TimeUnit.MILLISECONDS);
+    } catch (RejectedExecutionException e) {
+      return false;
+    }
+    metrics.requestRetried(write.request);
+    return true;
+  }
+
+  // Sends the halves of a rejected request in its place, as long as the budget allows.
+  private boolean split(PendingWrite write) {
+    if (write.request.getWrites().size() < 2) {
+      return false;
+    }
+    PendingWrite root = write.root;
+    List<WriteRequest> halves = write.request.split();
+    synchronized (this) {
+      if (root.splitRequests < halves.size()) {
+        return false;
+      }
+      root.splitRequests -= halves.size();
+      root.parts += halves.size() - 1;
+    }
+    metrics.requestSplit(write.request);
+    for (WriteRequest half : halves) {
+      send(new PendingWrite(half, root));
+    }
+    return true;
+  }
+
+  // Completes the request once it and all the parts it was split into are done.
+  private void finish(PendingWrite write) {
+    PendingWrite root = write.root;
+    synchronized (this) {
+      if (--root.parts > 0) {
+        return;
+      }
+    }
+    complete(root, true);
+  }
+
+  private void complete(PendingWrite write, boolean sent) {
+    String collectionName = write.request.getCollectionName();
+    synchronized (this) {
+      Map<PointId, ListenableFuture<Boolean>> collectionWrites = lastWrites.get(collectionName);
+      if (collectionWrites != null) {
+        for (PointId pointId : write.request.getPointIds()) {
+          collectionWrites.remove(pointId, write.done);
+        }
+        if (collectionWrites.isEmpty()) {
+          lastWrites.remove(collectionName);
+        }
+      }
+      if (sent) {
+        collectionsInFlight.computeIfPresent(
+            collectionName, (k, count) -> count > 1 ? count - 1 : null);
+        inFlight--;
+      }
+      pending--;
+      notifyAll();
+    }
+    write.done.set(write.exhausted);
+    dispatch();
+  }
+
+  /**
+   * A submitted request and the future completed once it is no longer in flight, with whether it
+   * ran out of retries, or a part of a submitted request that was split. Parts are accounted for on
+   * the submitted request, their root.
+   */
+  private static final class PendingWrite {
+    private final WriteRequest request;
+    private final PendingWrite root;
+    private final SettableFuture<Boolean> done = SettableFuture.create();
+    private int retries;
+    // Guarded by the pipeline, only used on the root.
+    private int parts = 1;
+    private int splitRequests;
+    private boolean exhausted;
+
+    private PendingWrite(WriteRequest request, int splitRequests) {
+      this.request = request;
+      this.root = this;
+      this.splitRequests = splitRequests;
+    }
+
+    private PendingWrite(WriteRequest request, PendingWrite root) {
+      this.request = request;
+      this.root = root;
+    }
+  }
+
+  /** A request that Qdrant did not accept, along with the cause. */
+  static final class FailedWrite {
+    private final WriteRequest request;
+    private final Throwable cause;
+
+    FailedWrite(WriteRequest request, Throwable cause) {
+      this.request = request;
+      this.cause = cause;
+    }
+
+    WriteRequest getRequest() {
+      return request;
+    }
+
+    Throwable getCause() {
+      return cause;
+    }
+  }
+}
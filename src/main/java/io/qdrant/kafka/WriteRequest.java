@@ -0,0 +1,150 @@
+package io.qdrant.kafka;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import io.qdrant.client.grpc.Collections.ShardKey;
+import io.qdrant.client.grpc.Common.PointId;
+import io.qdrant.client.grpc.Points.PointStruct;
+import io.qdrant.client.grpc.Points.PointsUpdateOperation;
+import io.qdrant.client.grpc.Points.ShardKeySelector;
+import io.qdrant.client.grpc.Points.UpdateResult;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.kafka.connect.sink.SinkRecord;
+
+/**
+ * A single write to a Qdrant collection, and to a single shard of it if it has a shard key, along
+ * with the sink records it covers.
+ */
+final class WriteRequest {
+
+  enum Operation {
+    UPSERT,
+    DELETE,
+    UPDATE
+  }
+
+  private final Operation operation;
+  private final String collectionName;
+  private final ShardKey shardKey;
+  private final List<PointWrite> writes;
+  private final List<PointId> pointIds;
+
+  private WriteRequest(
+      Operation operation, String collectionName, ShardKey shardKey, List<PointWrite> writes) {
+    this.operation = operation;
+    this.collectionName = collectionName;
+    this.shardKey = shardKey;
+    this.writes = writes;
+    this.pointIds = new ArrayList<>(writes.size());
+    for (PointWrite write : writes) {
+      pointIds.add(write.getPointId());
+    }
+  }
+
+  static WriteRequest upsert(String collectionName, List<PointWrite> upserts) {
+    return upsert(collectionName, null, upserts);
+  }
+
+  static WriteRequest upsert(String collectionName, ShardKey shardKey, List<PointWrite> upserts) {
+    return new WriteRequest(Operation.UPSERT, collectionName, shardKey, upserts);
+  }
+
+  static WriteRequest delete(String collectionName, List<PointWrite> deletes) {
+    return delete(collectionName, null, deletes);
+  }
+
+  static WriteRequest delete(String collectionName, ShardKey shardKey, List<PointWrite> deletes) {
+    return new WriteRequest(Operation.DELETE, collectionName, shardKey, deletes);
+  }
+
+  static WriteRequest update(String collectionName, ShardKey shardKey, List<PointWrite> updates) {
+    return new WriteRequest(Operation.UPDATE, collectionName, shardKey, updates);
+  }
+
+  /**
+   * Returns the two halves of the request, which has more than one write. Writes to a point are
+   * never split, so the halves touch disjoint points.
+   */
+  List<WriteRequest> split() {
+    int half = writes.size() / 2;
+    return List.of(
+        new WriteRequest(operation, collectionName, shardKey, writes.subList(0, half)),
+        new WriteRequest(operation, collectionName, shardKey, writes.subList(half, writes.size())));
+  }
+
+  static ShardKeySelector shardKeySelector(ShardKey shardKey) {
+    return ShardKeySelector.newBuilder().addShardKeys(shardKey).build();
+  }
+
+  ListenableFuture<UpdateResult> send(QdrantGrpc qdrantGrpc) {
+    ShardKeySelector shardKeySelector = shardKey == null ? null : shardKeySelector(shardKey);
+    switch (operation) {
+      case UPSERT:
+        List<PointStruct> points = new ArrayList<>(writes.size());
+        for (PointWrite write : writes) {
+          points.add(write.getPoint());
+        }
+        return qdrantGrpc.upsert(collectionName, points, shardKeySelector);
+      case DELETE:
+        return qdrantGrpc.delete(collectionName, pointIds, shardKeySelector);
+      case UPDATE:
+        // The partial updates carry their shard key selectors themselves.
+        List<PointsUpdateOperation> updates = new ArrayList<>();
+        for (PointWrite write : writes) {
+          updates.addAll(write.getUpdates());
+        }
+        return qdrantGrpc.updateBatch(collectionName, updates);
+      default:
+        throw new IllegalStateException("Unsupported write operation: " + operation);
+    }
+  }
+
+  String errorMessage() {
+    switch (operation) {
+      case UPSERT:
+        return "Qdrant server exception during upsert.";
+      case DELETE:
+        return "Qdrant server exception during delete.";
+      default:
+        return "Qdrant server exception during update.";
+    }
+  }
+
+  /** Returns the serialized size of the points, point ids or partial updates of the request. */
+  int getSerializedSize() {
+    int size = 0;
+    for (PointWrite write : writes) {
+      size += write.getSerializedSize();
+    }
+    return size;
+  }
+
+  Operation getOperation() {
+    return operation;
+  }
+
+  String getCollectionName() {
+    return collectionName;
+  }
+
+  /** Returns the shard key of the request, or null if it goes to any shard. */
+  ShardKey getShardKey() {
+    return shardKey;
+  }
+
+  List<PointWrite> getWrites() {
+    return writes;
+  }
+
+  List<PointId> getPointIds() {
+    return pointIds;
+  }
+
+  List<SinkRecord> getRecords() {
+    List<SinkRecord> records = new ArrayList<>(writes.size());
+    for (PointWrite write : writes) {
+      records.addAll(write.getRecords());
+    }
+    return records;
+  }
+}
@@ -0,0 +1,218 @@
+package io.qdrant.kafka;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import io.qdrant.client.QdrantClient;
+import io.qdrant.client.grpc.Collections.CollectionConfig;
+import io.qdrant.client.grpc.Collections.CollectionInfo;
+import io.qdrant.client.grpc.Collections.CollectionParams;
+import io.qdrant.client.grpc.Collections.Distance;
+import io.qdrant.client.grpc.Collections.MultiVectorComparator;
+import io.qdrant.client.grpc.Collections.MultiVectorConfig;
+import io.qdrant.client.grpc.Collections.SparseVectorConfig;
+import io.qdrant.client.grpc.Collections.SparseVectorParams;
+import io.qdrant.client.grpc.Collections.VectorParams;
+import io.qdrant.client.grpc.Collections.VectorParamsMap;
+import io.qdrant.client.grpc.Collections.VectorsConfig;
+import io.qdrant.client.grpc.Points.NamedVectors;
+import io.qdrant.client.grpc.Points.Vector;
+import io.qdrant.client.grpc.Points.Vectors;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.kafka.connect.errors.DataException;
+import org.junit.jupiter.api.Test;
+
+class CollectionSchemaTest {
+
+  private static final VectorParams DENSE =
+      VectorParams.newBuilder().setSize(3).setDistance(Distance.Cosine).build();
+  private static final VectorParams MULTI =
+      DENSE.toBuilder()
+          .setMultivectorConfig(
+              MultiVectorConfig.newBuilder().setComparator(MultiVectorComparator.MaxSim))
+          .build();
+
+  private static CollectionInfo info(VectorsConfig vectorsConfig, String... sparse) {
+    SparseVectorConfig.Builder sparseConfig = SparseVectorConfig.newBuilder();
+    for (String name : sparse) {
+      sparseConfig.putMap(name, SparseVectorParams.getDefaultInstance());
+    }
+    return CollectionInfo.newBuilder()
+        .setConfig(
+            CollectionConfig.newBuilder()
+                .setParams(
+                    CollectionParams.newBuilder()
+                        .setVectorsConfig(vectorsConfig)
+                        .setSparseVectorsConfig(sparseConfig)))
+        .build();
+  }
+
+  private static CollectionSchema named() {
+    VectorParamsMap params =
+        VectorParamsMap.newBuilder().putMap("dense", DENSE).putMap("multi", MULTI).build();
+    VectorsConfig config = VectorsConfig.newBuilder().setParamsMap(params).build();
+    return CollectionSchema.of("collection", info(config, "sparse"));
+  }
+
+  private static Vector vector(Float... values) {
+    return VectorsFactory.denseVector(List.of(values));
+  }
+
+  private static Vector multi(int rows) {
+    return VectorsFactory.denseVector(new float[3 * rows], 3 * rows).setVectorsCount(rows).build();
+  }
+
+  private static Vectors vectors(Float... values) {
+    return Vectors.newBuilder().setVector(vector(values)).build();
+  }
+
+  private static Vectors namedVectors(Map<String, Vector> vectors) {
+    return Vectors.newBuilder()
+        .setVectors(NamedVectors.newBuilder().putAllVectors(vectors))
+        .build();
+  }
+
+  @Test
+  void testValidVectorsPass() {
+    CollectionSchema schema = named();
+    schema.validate(
+        namedVectors(
+            Map.of(
+                "dense", vector(1f, 2f, 3f),
+                "multi", multi(2),
+                "sparse", VectorsFactory.sparseVector(List.of(7), List.of(0.5f)))));
+    schema.validate(namedVectors(Map.of()));
+
+    VectorsConfig config = VectorsConfig.newBuilder().setParams(DENSE).build();
+    CollectionSchema unnamed = CollectionSchema.of("collection", info(config));
+    unnamed.validate(vectors(1f, 2f, 3f));
+  }
+
+  @Test
+  void testUnknownVectorNameIsRejected() {
+    DataException e =
+        assertThrows(
+            DataException.class,
+            () -> named().validate(namedVectors(Map.of("other", vector(1f, 2f, 3f)))));
+    assertEquals("Vector 'other' is not configured in collection 'collection'.", e.getMessage());
+    assertThrows(DataException.class, () -> named().validate(vectors(1f, 2f, 3f)));
+  }
+
+  @Test
+  void testWrongDimensionIsRejected() {
+    DataException e =
+        assertThrows(
+            DataException.class,
+            () -> named().validate(namedVectors(Map.of("dense", vector(1f, 2f)))));
+    assertEquals(
+        "Vector 'dense' must have 3 dimensions, got 2 in collection 'collection'.", e.getMessage());
+    Vector wide = VectorsFactory.denseVector(new float[8], 8).setVectorsCount(2).build();
+    assertThrows(
+        DataException.class, () -> named().validate(namedVectors(Map.of("multi", wide))));
+  }
+
+  @Test
+  void testWrongKindIsRejected() {
+    Vector sparse = VectorsFactory.sparseVector(List.of(1, 2, 3), List.of(1f, 2f, 3f));
+    assertThrows(
+        DataException.class, () -> named().validate(namedVectors(Map.of("dense", sparse))));
+    assertThrows(
+        DataException.class,
+        () -> named().validate(namedVectors(Map.of("sparse", vector(1f, 2f, 3f)))));
+    assertThrows(
+        DataException.class, () -> named().validate(namedVectors(Map.of("dense", multi(1)))));
+    assertThrows(
+        DataException.class,
+        () -> named().validate(namedVectors(Map.of("multi", vector(1f, 2f, 3f)))));
+  }
+
+  private static class FakeQdrantGrpc extends QdrantGrpc {
+    final AtomicInteger fetches = new AtomicInteger();
+    volatile boolean fail;
+    volatile SettableFuture<CollectionInfo> pending;
+
+    FakeQdrantGrpc() {
+      super((QdrantClient) null);
+    }
+
+    @Override
+    public ListenableFuture<CollectionInfo> getCollectionInfo(
+        String collectionName, Duration timeout) {
+      fetches.incrementAndGet();
+      if (pending != null) {
+        return pending;
+      }
+      if (fail) {
+        return Futures.immediateFailedFuture(new RuntimeException("unavailable"));
+      }
+      return Futures.immediateFuture(
+          info(VectorsConfig.newBuilder().setParams(DENSE).build()));
+    }
+  }
+
+  @Test
+  void testSchemasAreCachedUntilExpiredOrInvalidated() {
+    FakeQdrantGrpc qdrantGrpc = new FakeQdrantGrpc();
+    AtomicLong now = new AtomicLong();
+    CollectionSchemas schemas = new CollectionSchemas(qdrantGrpc, 1000, 1000, now::get);
+
+    assertNotNull(schemas.get("collection"));
+    assertNotNull(schemas.get("collection"));
+    assertEquals(1, qdrantGrpc.fetches.get());
+
+    now.set(999);
+    schemas.get("collection");
+    assertEquals(1, qdrantGrpc.fetches.get());
+    now.set(1000);
+    schemas.get("collection");
+    assertEquals(2, qdrantGrpc.fetches.get());
+
+    schemas.invalidate("collection");
+    schemas.get("collection");
+    assertEquals(3, qdrantGrpc.fetches.get());
+  }
+
+  @Test
+  void testFailedFetchesSkipValidationAndAreRetriedSooner() {
+    FakeQdrantGrpc qdrantGrpc = new FakeQdrantGrpc();
+    qdrantGrpc.fail = true;
+    AtomicLong now = new AtomicLong();
+    CollectionSchemas schemas = new CollectionSchemas(qdrantGrpc, 300_000, 1000, now::get);
+
+    assertNull(schemas.get("collection"));
+    assertNull(schemas.get("collection"));
+    assertEquals(1, qdrantGrpc.fetches.get());
+
+    qdrantGrpc.fail = false;
+    now.set(CollectionSchemas.ERROR_TTL_MS);
+    assertNotNull(schemas.get("collection"));
+    assertEquals(2, qdrantGrpc.fetches.get());
+  }
+
+  @Test
+  void testPendingFetchIsOnlyAwaitedOnce() {
+    FakeQdrantGrpc qdrantGrpc = new FakeQdrantGrpc();
+    qdrantGrpc.pending = SettableFuture.create();
+    CollectionSchemas schemas = new CollectionSchemas(qdrantGrpc, 300_000, 50, () -> 0);
+
+    // The first lookup waits for the fetch, the next ones skip validation until it completes.
+    assertNull(schemas.get("collection"));
+    long start = System.nanoTime();
+    for (int i = 0; i < 100; i++) {
+      assertNull(schemas.get("collection"));
+    }
+    assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(50));
+    assertEquals(1, qdrantGrpc.fetches.get());
+
+    qdrantGrpc.pending.set(info(VectorsConfig.newBuilder().setParams(DENSE).build()));
+    assertNotNull(schemas.get("collection"));
+    assertEquals(1, qdrantGrpc.fetches.get());
+  }
+}
@@ -0,0 +1,131 @@
+package io.qdrant.kafka;
+
+import static io.qdrant.client.PointIdFactory.id;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.qdrant.client.grpc.Points.PointStruct;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.kafka.connect.errors.DataException;
+import org.junit.jupiter.api.Test;
+
+class JsonPointExtractorTest {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private static void assertMatchesValueExtractor(String json) throws Exception {
+    PointStruct expected = new ValueExtractor(MAPPER.readValue(json, Map.class)).getPointStruct();
+
+    assertEquals(expected, new JsonPointExtractor(json).getPointStruct());
+    assertEquals(
+        expected, new JsonPointExtractor(json.getBytes(StandardCharsets.UTF_8)).getPointStruct());
+  }
+
+  @Test
+  void testDenseVectorAndPayload() throws Exception {
+    assertMatchesValueExtractor(
+        "{\"collection_name\": \"c\", \"id\": 1, \"vector\": [0.1, 0.2, 3],"
+            + " \"payload\": {\"name\": \"kafka\", \"nested\": {\"list\": [1, 2.5, null, true]}}}");
+  }
+
+  @Test
+  void testNamedVectors() throws Exception {
+    assertMatchesValueExtractor(
+        "{\"collection_name\": \"c\", \"id\": \"a10435b5-2a58-427a-a3a0-a5d845b147b7\","
+            + " \"vector\": {\"dense\": [0.1, 0.2], \"sparse\": {\"indices\": [3, 7],"
+            + " \"values\": [0.5, 0.25]}, \"multi\": [[0.1, 0.2], [0.3, 0.4]]}}");
+  }
+
+  @Test
+  void testNullVectorAndPayload() throws Exception {
+    assertMatchesValueExtractor(
+        "{\"id\": 9007199254740993, \"payload\": null, \"vector\": null, \"extra\": {\"a\": [1]}}");
+  }
+
+  @Test
+  void testCollectionNameAndId() throws Exception {
+    JsonPointExtractor extractor =
+        new JsonPointExtractor("{\"id\": 42, \"collection_name\": \"test_collection\"}");
+
+    assertDoesNotThrow(extractor::validateOptions);
+    assertEquals("test_collection", extractor.getCollectionName());
+    assertEquals(id(42), extractor.getPointId());
+  }
+
+  @Test
+  void testCollectionNameOverride() throws Exception {
+    JsonPointExtractor extractor =
+        new JsonPointExtractor("{\"collection_name\": \"record_level\"}", "connector_level");
+
+    assertEquals("connector_level", extractor.getCollectionName());
+  }
+
+  @Test
+  void testMissingRequiredField() throws Exception {
+    JsonPointExtractor extractor = new JsonPointExtractor("{\"id\": 42}");
+
+    assertThrows(DataException.class, extractor::validateOptions);
+  }
+
+  @Test
+  void testInvalidVectors() {
+    assertThrows(DataException.class, () -> new JsonPointExtractor("{\"id\": 1, \"vector\": []}"));
+    assertThrows(
+        DataException.class, () -> new JsonPointExtractor("{\"id\": 1, \"vector\": [\"a\"]}"));
+    assertThrows(
+        DataException.class,
+        () -> new JsonPointExtractor("{\"id\": 1, \"vector\": {\"m\": [[1, 2], [3]]}}"));
+    assertThrows(
+        DataException.class,
+        () -> new JsonPointExtractor("{\"id\": 1, \"vector\": {\"s\": {\"indices\": [1]}}}"));
+  }
+
+  @Test
+  void testNotAnObject() {
+    assertThrows(DataException.class, () -> new JsonPointExtractor("[1, 2]"));
+  }
+
+  @Test
+  void testBinaryVectors() throws Exception {
+    assertMatchesValueExtractor(
+        "{\"collection_name\": \"c\", \"id\": 1, \"vector\": \"zczMPc3MTD6amZk+zczMPg==\"}");
+    assertMatchesValueExtractor(
+        "{\"collection_name\": \"c\", \"id\": 1,"
+            + " \"vector\": {\"dense\": \"zczMPc3MTD6amZk+zczMPg==\", \"other\": [0.5]}}");
+
+    JsonPointExtractor extractor =
+        new JsonPointExtractor(
+            "{\"id\": 1, \"vector\": \"gD8AwA==\"}",
+            "c",
+            VectorEncoding.BFLOAT16,
+            PayloadProjections.NONE);
+    PointStruct point = extractor.getPointStruct();
+    assertEquals(List.of(1f, -2f), point.getVectors().getVector().getDataList());
+  }
+
+  @Test
+  void testPayloadProjection() throws Exception {
+    Map<String, String> props = new HashMap<>();
+    props.put(QdrantSinkConfig.PAYLOAD_EXCLUDE, "html, nested.debug");
+    PayloadProjections projections = PayloadProjections.from(new QdrantSinkConfig(props));
+    String payload =
+        "\"payload\": {\"name\": \"kafka\", \"html\": {\"a\": [1, 2]},"
+            + " \"nested\": {\"keep\": 1, \"debug\": \"x\"}}";
+    JsonPointExtractor projected =
+        new JsonPointExtractor(
+            "{\"id\": 1, \"payload\": {\"name\": \"kafka\", \"nested\": {\"keep\": 1}}}");
+    PointStruct expected = projected.getPointStruct();
+
+    // The collection is known before the payload, or only after it.
+    String before = "{\"collection_name\": \"c\", \"id\": 1, " + payload + "}";
+    String after = "{\"id\": 1, " + payload + ", \"collection_name\": \"c\"}";
+    for (String json : List.of(before, after)) {
+      JsonPointExtractor extractor =
+          new JsonPointExtractor(json, null, VectorEncoding.FLOAT32, projections);
+      assertEquals(expected, extractor.getPointStruct());
+    }
+  }
+}
@@ -0,0 +1,55 @@
+package io.qdrant.kafka;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Map;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.junit.jupiter.api.Test;
+
+class OffsetTrackerTest {
+
+  private static final TopicPartition PARTITION = new TopicPartition("topic", 0);
+
+  private static SinkRecord record(long offset) {
+    return new SinkRecord("topic", 0, null, null, null, "value", offset);
+  }
+
+  @Test
+  void testNoPendingWritesCommitsCurrentOffsets() {
+    OffsetTracker tracker = new OffsetTracker();
+    Map<TopicPartition, OffsetAndMetadata> current = Map.of(PARTITION, new OffsetAndMetadata(10));
+
+    assertEquals(current, tracker.committableOffsets(current));
+  }
+
+  @Test
+  void testPendingWritesHoldBackOffsets() {
+    OffsetTracker tracker = new OffsetTracker();
+    tracker.track(List.of(record(3), record(4), record(5)));
+    tracker.complete(List.of(record(4)));
+
+    Map<TopicPartition, OffsetAndMetadata> current = Map.of(PARTITION, new OffsetAndMetadata(6));
+
+    assertEquals(new OffsetAndMetadata(3), tracker.committableOffsets(current).get(PARTITION));
+
+    tracker.complete(List.of(record(3)));
+    assertEquals(new OffsetAndMetadata(5), tracker.committableOffsets(current).get(PARTITION));
+
+    tracker.complete(List.of(record(5)));
+    assertEquals(new OffsetAndMetadata(6), tracker.committableOffsets(current).get(PARTITION));
+  }
+
+  @Test
+  void testRemovedPartitionsAreForgotten() {
+    OffsetTracker tracker = new OffsetTracker();
+    tracker.track(List.of(record(3)));
+    tracker.remove(List.of(PARTITION));
+
+    Map<TopicPartition, OffsetAndMetadata> current = Map.of(PARTITION, new OffsetAndMetadata(4));
+
+    assertEquals(current, tracker.committableOffsets(current));
+  }
+}
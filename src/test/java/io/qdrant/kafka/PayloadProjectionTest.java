@@ -0,0 +1,89 @@
+package io.qdrant.kafka;
+
+import static io.qdrant.client.ValueFactory.list;
+import static io.qdrant.client.ValueFactory.value;
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.qdrant.client.grpc.JsonWithInt.Struct;
+import io.qdrant.client.grpc.JsonWithInt.Value;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class PayloadProjectionTest {
+
+  private static Value object(Map<String, Value> fields) {
+    return Value.newBuilder().setStructValue(Struct.newBuilder().putAllFields(fields)).build();
+  }
+
+  private static Map<String, Value> payload() {
+    return Map.of(
+        "title", value("title"),
+        "html", value("<html>"),
+        "author", object(Map.of("name", value("name"), "email", value("email"))),
+        "links", list(List.of(object(Map.of("url", value("url"), "debug", value("debug"))))));
+  }
+
+  @Test
+  void testNoPathsKeepEverything() {
+    PayloadProjection projection = PayloadProjection.of(List.of(), List.of(""));
+
+    Map<String, Value> payload = payload();
+    assertTrue(projection.isAll());
+    assertSame(payload, projection.project(payload));
+    assertTrue(projection.field("html").isAll());
+  }
+
+  @Test
+  void testInclude() {
+    PayloadProjection projection = PayloadProjection.of(List.of("title", "author.name"), List.of());
+
+    Map<String, Value> projected = projection.project(payload());
+
+    assertEquals(
+        Map.of("title", value("title"), "author", object(Map.of("name", value("name")))),
+        projected);
+    assertNull(projection.field("html"));
+  }
+
+  @Test
+  void testExclude() {
+    PayloadProjection projection =
+        PayloadProjection.of(List.of(), List.of("html", "author.email", "links.debug"));
+
+    Map<String, Value> projected = projection.project(payload());
+
+    assertEquals(
+        Map.of(
+            "title", value("title"),
+            "author", object(Map.of("name", value("name"))),
+            "links", list(List.of(object(Map.of("url", value("url")))))),
+        projected);
+  }
+
+  @Test
+  void testWholeFieldWinsOverNestedPath() {
+    PayloadProjection projection =
+        PayloadProjection.of(List.of("author", "author.name"), List.of("links", "links.debug"));
+
+    assertTrue(projection.field("author").isAll());
+    assertNull(projection.field("links"));
+  }
+
+  @Test
+  void testPerCollectionOverrides() {
+    Map<String, String> props = new HashMap<>();
+    props.put(QdrantSinkConfig.PAYLOAD_EXCLUDE, "html");
+    props.put(QdrantSinkConfig.PAYLOAD_INCLUDE + ".titles", "title, html");
+    props.put(QdrantSinkConfig.PAYLOAD_EXCLUDE + ".raw", "");
+
+    PayloadProjections projections = PayloadProjections.from(new QdrantSinkConfig(props));
+
+    assertEquals(Map.of("title", value("title")), projections.get("titles").project(payload()));
+    assertTrue(projections.get("raw").isAll());
+    assertNull(projections.get("other").field("html"));
+    assertSame(
+        PayloadProjections.NONE, PayloadProjections.from(new QdrantSinkConfig(new HashMap<>())));
+  }
+}
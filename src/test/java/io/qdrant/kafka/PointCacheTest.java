@@ -0,0 +1,154 @@
+package io.qdrant.kafka;
+
+import static io.qdrant.client.PointIdFactory.id;
+import static io.qdrant.client.ValueFactory.value;
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.qdrant.client.grpc.Collections.ShardKey;
+import io.qdrant.client.grpc.Points.PointStruct;
+import java.util.List;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.junit.jupiter.api.Test;
+
+class PointCacheTest {
+
+  private static PointStruct point(long pointId, String title) {
+    return PointStruct.newBuilder().setId(id(pointId)).putPayload("title", value(title)).build();
+  }
+
+  private static SinkRecord record(long offset) {
+    return new SinkRecord("topic", 0, null, null, null, null, offset);
+  }
+
+  @Test
+  void testContentHashIgnoresPayloadOrder() {
+    PointStruct first =
+        PointStruct.newBuilder()
+            .setId(id(1))
+            .putPayload("a", value(1))
+            .putPayload("b", value(2))
+            .build();
+    PointStruct second =
+        PointStruct.newBuilder()
+            .setId(id(1))
+            .putPayload("b", value(2))
+            .putPayload("a", value(1))
+            .build();
+
+    assertEquals(PointCache.contentHash(first, null), PointCache.contentHash(second, null));
+    assertNotEquals(
+        PointCache.contentHash(point(1, "a"), null), PointCache.contentHash(point(1, "b"), null));
+    assertNotEquals(PointCache.key("c", id(1)), PointCache.key("other", id(1)));
+  }
+
+  @Test
+  void testOnlyConfirmedContentIsUnchanged() {
+    PointCache cache = new PointCache(16);
+    long key = PointCache.key("c", id(1));
+
+    long sequence = cache.pending(key, 42);
+    assertFalse(cache.isUnchanged(key, 42));
+    cache.confirm(key, 42, sequence);
+    assertTrue(cache.isUnchanged(key, 42));
+    assertFalse(cache.isUnchanged(key, 43));
+
+    cache.invalidate(key);
+    assertFalse(cache.isUnchanged(key, 42));
+  }
+
+  @Test
+  void testShardKeyIsHashedWithContent() {
+    ShardKey tenant = ShardKey.newBuilder().setKeyword("tenant").build();
+    PointStruct point = point(1, "a");
+
+    assertNotEquals(PointCache.contentHash(point, null), PointCache.contentHash(point, tenant));
+
+    // Tombstones may have no shard key, they drop the point all the same.
+    PointCache cache = new PointCache(16);
+    long key = PointCache.key("c", id(1));
+    long hash = PointCache.contentHash(point, tenant);
+    cache.confirm(key, hash, cache.pending(key, hash));
+    cache.invalidate(PointCache.key("c", point.getId()));
+    assertFalse(cache.isUnchanged(key, hash));
+  }
+
+  @Test
+  void testClearDropsEveryPoint() {
+    PointCache cache = new PointCache(16);
+    long key = PointCache.key("c", id(1));
+    cache.confirm(key, 42, cache.pending(key, 42));
+
+    cache.clear();
+    assertFalse(cache.isUnchanged(key, 42));
+  }
+
+  @Test
+  void testLaterWriteIsNotConfirmedByEarlierOne() {
+    PointCache cache = new PointCache(16);
+    long key = PointCache.key("c", id(1));
+
+    long first = cache.pending(key, 1);
+    long second = cache.pending(key, 2);
+    cache.confirm(key, 1, first);
+    cache.discard(key, 1, first);
+
+    assertFalse(cache.isUnchanged(key, 1));
+    cache.confirm(key, 2, second);
+    assertTrue(cache.isUnchanged(key, 2));
+  }
+
+  @Test
+  void testEarlierWriteOfSameContentDoesNotConfirmLaterOne() {
+    PointCache cache = new PointCache(16);
+    long key = PointCache.key("c", id(1));
+
+    // Upsert A, delete, upsert A again: the first upsert is acknowledged after the delete.
+    long first = cache.pending(key, 42);
+    cache.invalidate(key);
+    long second = cache.pending(key, 42);
+    cache.confirm(key, 42, first);
+    assertFalse(cache.isUnchanged(key, 42));
+
+    // Nor does its failure drop the later one.
+    cache.discard(key, 42, first);
+    cache.confirm(key, 42, second);
+    assertTrue(cache.isUnchanged(key, 42));
+  }
+
+  @Test
+  void testLeastRecentlyUsedIsEvicted() {
+    // A single set of four entries.
+    PointCache cache = new PointCache(4);
+    for (long i = 1; i <= 4; i++) {
+      cache.confirm(i, i, cache.pending(i, i));
+    }
+    assertTrue(cache.isUnchanged(1, 1));
+
+    cache.pending(5, 5);
+
+    assertTrue(cache.isUnchanged(1, 1));
+    assertFalse(cache.isUnchanged(2, 2));
+    assertTrue(cache.isUnchanged(3, 3));
+    assertTrue(cache.isUnchanged(4, 4));
+  }
+
+  @Test
+  void testAcknowledgedRequestsConfirmUpserts() {
+    PointCache cache = new PointCache(16);
+    PointStruct point = point(1, "kafka");
+    long key = PointCache.key("c", id(1));
+    long hash = PointCache.contentHash(point, null);
+    long sequence = cache.pending(key, hash);
+    WriteRequest request =
+        WriteRequest.upsert("c", List.of(PointWrite.upsert(point, hash, sequence, record(0))));
+
+    cache.failed(request);
+    assertFalse(cache.isUnchanged(key, hash));
+
+    sequence = cache.pending(key, hash);
+    request =
+        WriteRequest.upsert("c", List.of(PointWrite.upsert(point, hash, sequence, record(0))));
+    cache.written(request);
+    assertTrue(cache.isUnchanged(key, hash));
+  }
+}
@@ -0,0 +1,89 @@
+package io.qdrant.kafka;
+
+import static io.qdrant.client.PointIdFactory.id;
+import static io.qdrant.client.ValueFactory.value;
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.qdrant.client.grpc.Collections.ShardKey;
+import io.qdrant.client.grpc.Points.NamedVectors;
+import io.qdrant.client.grpc.Points.PointStruct;
+import io.qdrant.client.grpc.Points.PointsUpdateOperation;
+import io.qdrant.client.grpc.Points.Vector;
+import io.qdrant.client.grpc.Points.Vectors;
+import java.util.List;
+import org.apache.kafka.connect.errors.DataException;
+import org.junit.jupiter.api.Test;
+
+class PointOperationTest {
+
+  private static final Vector VECTOR = VectorsFactory.denseVector(new float[2], 2).build();
+
+  private static PointStruct point(String... vectorNames) {
+    NamedVectors.Builder vectors = NamedVectors.newBuilder();
+    for (String name : vectorNames) {
+      vectors.putVectors(name, VECTOR);
+    }
+    return PointStruct.newBuilder()
+        .setId(id(1))
+        .putPayload("title", value("kafka"))
+        .setVectors(Vectors.newBuilder().setVectors(vectors))
+        .build();
+  }
+
+  @Test
+  void testParse() {
+    assertEquals(PointOperation.SET_PAYLOAD, PointOperation.parse(" set_payload"));
+    assertEquals(PointOperation.DELETE_VECTORS, PointOperation.parse("DELETE_VECTORS"));
+    assertFalse(PointOperation.UPSERT.isPartial());
+    assertTrue(PointOperation.UPDATE_VECTORS.isPartial());
+    assertThrows(DataException.class, () -> PointOperation.parse("merge"));
+  }
+
+  @Test
+  void testUpdateCarriesPointAndShardKey() {
+    ShardKey shardKey = ShardKey.newBuilder().setKeyword("eu").build();
+
+    PointsUpdateOperation update = PointOperation.SET_PAYLOAD.update(point(), shardKey);
+
+    assertEquals(value("kafka"), update.getSetPayload().getPayloadMap().get("title"));
+    assertEquals(
+        List.of(id(1)), update.getSetPayload().getPointsSelector().getPoints().getIdsList());
+    assertEquals(
+        List.of(shardKey), update.getSetPayload().getShardKeySelector().getShardKeysList());
+    assertEquals(
+        List.of("title"),
+        PointOperation.DELETE_PAYLOAD.update(point(), null).getDeletePayload().getKeysList());
+    assertEquals(
+        List.of("dense"),
+        PointOperation.DELETE_VECTORS
+            .update(point("dense"), null)
+            .getDeleteVectors()
+            .getVectors()
+            .getNamesList());
+  }
+
+  @Test
+  void testUpdateWithoutContentIsRejected() {
+    PointStruct empty = PointStruct.newBuilder().setId(id(1)).build();
+
+    assertThrows(DataException.class, () -> PointOperation.DELETE_PAYLOAD.update(empty, null));
+    assertThrows(DataException.class, () -> PointOperation.UPDATE_VECTORS.update(empty, null));
+    assertThrows(DataException.class, () -> PointOperation.DELETE_VECTORS.update(empty, null));
+  }
+
+  @Test
+  void testApplyToUpsertedPoint() {
+    PointStruct author =
+        PointStruct.newBuilder().setId(id(1)).putPayload("author", value("qdrant")).build();
+    PointsUpdateOperation deleteVectors =
+        PointOperation.DELETE_VECTORS.update(point("image"), null);
+    PointsUpdateOperation overwritePayload = PointOperation.OVERWRITE_PAYLOAD.update(author, null);
+
+    PointStruct updated = PointOperation.apply(point("dense", "image"), deleteVectors);
+    updated = PointOperation.apply(updated, overwritePayload);
+
+    assertEquals(
+        List.of("dense"), List.copyOf(updated.getVectors().getVectors().getVectorsMap().keySet()));
+    assertEquals(List.of("author"), List.copyOf(updated.getPayloadMap().keySet()));
+  }
+}
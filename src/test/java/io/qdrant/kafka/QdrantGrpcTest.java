@@ -0,0 +1,41 @@
+package io.qdrant.kafka;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.google.common.util.concurrent.SettableFuture;
+import io.qdrant.client.QdrantClient;
+import io.qdrant.kafka.QdrantGrpc.ChannelSelection;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+class QdrantGrpcTest {
+
+  private static QdrantGrpc pool(int channels, ChannelSelection selection) {
+    return new QdrantGrpc(Arrays.asList(new QdrantClient[channels]), selection);
+  }
+
+  @Test
+  void testRoundRobinSelection() {
+    QdrantGrpc qdrantGrpc = pool(3, ChannelSelection.ROUND_ROBIN);
+
+    assertEquals(0, qdrantGrpc.select());
+    assertEquals(1, qdrantGrpc.select());
+    assertEquals(2, qdrantGrpc.select());
+    assertEquals(0, qdrantGrpc.select());
+  }
+
+  @Test
+  void testLeastOutstandingSelection() {
+    QdrantGrpc qdrantGrpc = pool(2, ChannelSelection.LEAST_OUTSTANDING);
+    SettableFuture<Void> slow = SettableFuture.create();
+
+    // The first request stays in flight on channel 0, so the next ones go to channel 1.
+    qdrantGrpc.call(client -> slow);
+    assertEquals(1, qdrantGrpc.select());
+    assertEquals(1, qdrantGrpc.select());
+
+    // Once it completes, both channels are picked again.
+    slow.set(null);
+    assertNotEquals(qdrantGrpc.select(), qdrantGrpc.select());
+  }
+}
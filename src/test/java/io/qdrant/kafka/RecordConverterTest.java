@@ -0,0 +1,145 @@
+package io.qdrant.kafka;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.qdrant.client.grpc.Points.PointStruct;
+import io.qdrant.client.grpc.Points.PointsUpdateOperation;
+import io.qdrant.kafka.RecordConverter.Conversion;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.kafka.connect.errors.DataException;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.junit.jupiter.api.Test;
+
+class RecordConverterTest {
+
+  private static RecordConverter converter(int threads) {
+    return converter(PointOperations.NONE, threads);
+  }
+
+  private static RecordConverter converter(PointOperations operations, int threads) {
+    return converter(PayloadProjections.NONE, ShardKeys.NONE, operations, threads);
+  }
+
+  private static RecordConverter converter(
+      PayloadProjections projections,
+      ShardKeys shardKeys,
+      PointOperations operations,
+      int threads) {
+    return new RecordConverter(
+        "",
+        VectorEncoding.FLOAT32,
+        projections,
+        shardKeys,
+        operations,
+        PointCache.DISABLED,
+        CollectionSchemas.DISABLED,
+        threads);
+  }
+
+  private static SinkRecord record(int partition, long offset, String value) {
+    return new SinkRecord("topic", partition, null, null, null, value, offset);
+  }
+
+  private static String point(long pointId) {
+    return "{\"collection_name\": \"c\", \"id\": " + pointId + ", \"vector\": [0.1, 0.2]}";
+  }
+
+  @Test
+  void testConversionsKeepRecordOrder() throws Exception {
+    List<SinkRecord> records = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      records.add(record(i % 4, i, point(i % 10)));
+    }
+
+    try (RecordConverter converter = converter(4)) {
+      List<Conversion> conversions = converter.convert(records);
+
+      assertEquals(records.size(), conversions.size());
+      WriteBatch batch = new WriteBatch();
+      for (int i = 0; i < records.size(); i++) {
+        assertSame(records.get(i), conversions.get(i).getRecord());
+        assertNull(conversions.get(i).getError());
+        conversions.get(i).addTo(batch);
+      }
+      List<WriteRequest> requests = batch.getRequests();
+      assertEquals(1, requests.size());
+      assertEquals(10, requests.get(0).getPointIds().size());
+      assertEquals(records.get(99), requests.get(0).getWrites().get(9).getRecord());
+    }
+  }
+
+  @Test
+  void testInvalidRecordIsReturnedAsError() throws Exception {
+    try (RecordConverter converter = converter(2)) {
+      List<Conversion> conversions =
+          converter.convert(List.of(record(0, 0, "{\"id\": 1}"), record(1, 0, point(1))));
+
+      assertInstanceOf(DataException.class, conversions.get(0).getError());
+      assertNull(conversions.get(1).getError());
+    }
+  }
+
+  @Test
+  void testOperationFieldSelectsPartialUpdate() throws Exception {
+    String value =
+        "{\"collection_name\": \"c\", \"id\": 1,"
+            + " \"payload\": {\"op\": \"set_payload\", \"title\": \"kafka\"}}";
+
+    try (RecordConverter converter = converter(new PointOperations(null, "op"), 1)) {
+      Conversion conversion = converter.convert(record(0, 0, value));
+      WriteBatch batch = new WriteBatch();
+      conversion.addTo(batch);
+
+      WriteRequest request = batch.getRequests().get(0);
+      assertEquals(WriteRequest.Operation.UPDATE, request.getOperation());
+      PointsUpdateOperation update = request.getWrites().get(0).getUpdates().get(0);
+      assertEquals(Set.of("title"), update.getSetPayload().getPayloadMap().keySet());
+    }
+  }
+
+  @Test
+  void testOperationFieldIsReadWhateverTheProjection() throws Exception {
+    String value =
+        "{\"collection_name\": \"c\", \"id\": 1,"
+            + " \"payload\": {\"op\": \"set_payload\", \"title\": \"kafka\", \"html\": \"<p>\"}}";
+    PayloadProjections projections =
+        PayloadProjections.from(
+            new QdrantSinkConfig(Map.of(QdrantSinkConfig.PAYLOAD_INCLUDE, "title")));
+
+    try (RecordConverter converter =
+        converter(projections, ShardKeys.NONE, new PointOperations(null, "op"), 1)) {
+      Conversion conversion = converter.convert(record(0, 0, value));
+      WriteBatch batch = new WriteBatch();
+      conversion.addTo(batch);
+
+      WriteRequest request = batch.getRequests().get(0);
+      assertEquals(WriteRequest.Operation.UPDATE, request.getOperation());
+      PointsUpdateOperation update = request.getWrites().get(0).getUpdates().get(0);
+      assertEquals(Set.of("title"), update.getSetPayload().getPayloadMap().keySet());
+    }
+  }
+
+  @Test
+  void testShardKeyFieldIsReadWhateverTheProjection() throws Exception {
+    String value =
+        "{\"collection_name\": \"c\", \"id\": 1, \"vector\": [0.1, 0.2],"
+            + " \"payload\": {\"tenant\": \"acme\", \"title\": \"kafka\"}}";
+    PayloadProjections projections =
+        PayloadProjections.from(
+            new QdrantSinkConfig(Map.of(QdrantSinkConfig.PAYLOAD_EXCLUDE, "tenant")));
+    ShardKeys shardKeys = new ShardKeys(null, "tenant", Map.of());
+
+    try (RecordConverter converter = converter(projections, shardKeys, PointOperations.NONE, 1)) {
+      WriteBatch batch = new WriteBatch();
+      converter.convert(record(0, 0, value)).addTo(batch);
+
+      WriteRequest request = batch.getRequests().get(0);
+      assertEquals("acme", request.getShardKey().getKeyword());
+      PointStruct point = request.getWrites().get(0).getPoint();
+      assertEquals(Set.of("title"), point.getPayloadMap().keySet());
+    }
+  }
+}
@@ -0,0 +1,41 @@
+package io.qdrant.kafka;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.grpc.Status;
+import java.util.concurrent.ExecutionException;
+import org.junit.jupiter.api.Test;
+
+class RetryPolicyTest {
+
+  @Test
+  void testTransientStatusesAreRetryable() {
+    RetryPolicy policy = new RetryPolicy(3, 100, 1000);
+
+    assertTrue(policy.isRetryable(Status.UNAVAILABLE.asRuntimeException()));
+    assertTrue(policy.isRetryable(Status.DEADLINE_EXCEEDED.asRuntimeException()));
+    assertTrue(policy.isRetryable(Status.RESOURCE_EXHAUSTED.asException()));
+    assertTrue(
+        policy.isRetryable(new ExecutionException(Status.UNAVAILABLE.asRuntimeException())));
+
+    assertFalse(policy.isRetryable(Status.INVALID_ARGUMENT.asRuntimeException()));
+    assertFalse(policy.isRetryable(Status.NOT_FOUND.asRuntimeException()));
+    assertFalse(policy.isRetryable(new RuntimeException("boom")));
+  }
+
+  @Test
+  void testBackoffIsExponentialAndCapped() {
+    RetryPolicy policy = new RetryPolicy(10, 100, 1000);
+
+    for (int i = 0; i < 100; i++) {
+      long first = policy.backoffMs(0);
+      assertTrue(first >= 50 && first <= 100, "First backoff: " + first);
+
+      long third = policy.backoffMs(2);
+      assertTrue(third >= 200 && third <= 400, "Third backoff: " + third);
+
+      long capped = policy.backoffMs(50);
+      assertTrue(capped >= 500 && capped <= 1000, "Capped backoff: " + capped);
+    }
+  }
+}
@@ -0,0 +1,72 @@
+package io.qdrant.kafka;
+
+import static io.qdrant.client.ValueFactory.value;
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.qdrant.client.grpc.Collections.ShardKey;
+import io.qdrant.client.grpc.JsonWithInt.Value;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.kafka.common.config.ConfigException;
+import org.apache.kafka.connect.errors.DataException;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.junit.jupiter.api.Test;
+
+class ShardKeysTest {
+
+  private static ShardKeys shardKeys(String header, String field, String topics) {
+    Map<String, String> props = new HashMap<>();
+    props.put(QdrantSinkConfig.SHARD_KEY_HEADER, header);
+    props.put(QdrantSinkConfig.SHARD_KEY_FIELD, field);
+    props.put(QdrantSinkConfig.SHARD_KEY_TOPICS, topics);
+    return ShardKeys.from(new QdrantSinkConfig(props));
+  }
+
+  private static SinkRecord record(String topic) {
+    return new SinkRecord(topic, 0, null, null, null, null, 0);
+  }
+
+  private static ShardKey keyword(String keyword) {
+    return ShardKey.newBuilder().setKeyword(keyword).build();
+  }
+
+  @Test
+  void testNoShardKey() {
+    ShardKeys shardKeys = ShardKeys.from(new QdrantSinkConfig(new HashMap<>()));
+
+    assertNull(shardKeys.get(record("topic"), Map.of("tenant", value("eu"))));
+  }
+
+  @Test
+  void testHeaderTakesPrecedence() {
+    ShardKeys shardKeys = shardKeys("shard", "tenant", "topic:default");
+    SinkRecord record = record("topic");
+    record.headers().addString("shard", "us");
+
+    assertEquals(keyword("us"), shardKeys.get(record, Map.of("tenant", value("eu"))));
+  }
+
+  @Test
+  void testFieldThenTopic() {
+    ShardKeys shardKeys = shardKeys("shard", "tenant", "topic:default,other:7");
+    Map<String, Value> payload = Map.of("tenant", value(42));
+
+    assertEquals(
+        ShardKey.newBuilder().setNumber(42).build(), shardKeys.get(record("topic"), payload));
+    assertEquals(keyword("default"), shardKeys.get(record("topic"), Map.of()));
+    assertEquals(keyword("default"), shardKeys.get(record("topic"), null));
+    assertEquals(keyword("7"), shardKeys.get(record("other"), null));
+    assertNull(shardKeys.get(record("unmapped"), null));
+  }
+
+  @Test
+  void testInvalidShardKeys() {
+    ShardKeys shardKeys = shardKeys("", "tenant", "");
+
+    assertThrows(
+        DataException.class, () -> shardKeys.get(record("topic"), Map.of("tenant", value(-1))));
+    assertThrows(
+        DataException.class, () -> shardKeys.get(record("topic"), Map.of("tenant", value(1.5))));
+    assertThrows(ConfigException.class, () -> shardKeys("", "", "topic"));
+  }
+}
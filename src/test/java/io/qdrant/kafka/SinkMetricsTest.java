@@ -0,0 +1,86 @@
+package io.qdrant.kafka;
+
+import static io.qdrant.client.PointIdFactory.id;
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.qdrant.client.grpc.Points.PointStruct;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.metrics.KafkaMetric;
+import org.apache.kafka.common.metrics.Metrics;
+import org.apache.kafka.common.metrics.internals.PluginMetricsImpl;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.junit.jupiter.api.Test;
+
+class SinkMetricsTest {
+
+  private static Object value(Metrics metrics, String name, String collectionName) {
+    for (Map.Entry<MetricName, KafkaMetric> metric : metrics.metrics().entrySet()) {
+      if (metric.getKey().name().equals(name)
+          && collectionName.equals(metric.getKey().tags().get("collection"))) {
+        return metric.getValue().metricValue();
+      }
+    }
+    throw new AssertionError("Metric not found: " + name);
+  }
+
+  private static WriteRequest upsert(String collectionName) {
+    PointStruct point = PointStruct.newBuilder().setId(id(1)).build();
+    SinkRecord record = new SinkRecord("topic", 0, null, null, null, "value", 0);
+    return WriteRequest.upsert(collectionName, List.of(PointWrite.upsert(point, record)));
+  }
+
+  @Test
+  void testMetricsAreTaggedByCollection() {
+    try (Metrics metrics = new Metrics()) {
+      SinkMetrics sinkMetrics =
+          new SinkMetrics(
+              new PluginMetricsImpl(metrics, Map.of("connector", "qdrant")), new OutboundBytes());
+
+      sinkMetrics.recordConverted("first", 1000);
+      sinkMetrics.recordConverted("first", 3000);
+      sinkMetrics.recordConverted("second", 5000);
+      sinkMetrics.recordErrant("second", 2);
+
+      assertEquals(2.0, value(metrics, "record-total", "first"));
+      assertEquals(2000.0, value(metrics, "conversion-time-ns-avg", "first"));
+      assertEquals(1.0, value(metrics, "record-total", "second"));
+      assertEquals(2.0, value(metrics, "errant-record-total", "second"));
+    }
+  }
+
+  @Test
+  void testRequestMetrics() {
+    try (Metrics metrics = new Metrics()) {
+      SinkMetrics sinkMetrics =
+          new SinkMetrics(
+              new PluginMetricsImpl(metrics, Map.of("connector", "qdrant")), new OutboundBytes());
+      WriteRequest request = upsert("collection");
+
+      sinkMetrics.requestSent(request);
+      assertEquals(1, value(metrics, "requests-in-flight", "collection"));
+
+      sinkMetrics.requestCompleted(request, TimeUnit.MILLISECONDS.toNanos(20), false);
+      assertEquals(0, value(metrics, "requests-in-flight", "collection"));
+      assertEquals(1.0, value(metrics, "request-points-max", "collection"));
+      assertEquals(20.0, value(metrics, "upsert-latency-ms-max", "collection"));
+      assertEquals(1.0, value(metrics, "failed-request-total", "collection"));
+
+      sinkMetrics.requestRetried(request);
+      assertEquals(1.0, value(metrics, "retried-request-total", "collection"));
+
+      sinkMetrics.requestSplit(request);
+      assertEquals(1.0, value(metrics, "split-request-total", "collection"));
+    }
+  }
+
+  @Test
+  void testNoopMetrics() {
+    SinkMetrics sinkMetrics = SinkMetrics.noop();
+
+    assertDoesNotThrow(() -> sinkMetrics.recordConverted("collection", 1000));
+    assertDoesNotThrow(() -> sinkMetrics.requestSent(upsert("collection")));
+  }
+}
@@ -0,0 +1,228 @@
+package io.qdrant.kafka;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.qdrant.client.grpc.Points.PointStruct;
+import io.qdrant.client.grpc.Points.Vectors;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.kafka.connect.data.Decimal;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.data.Timestamp;
+import org.apache.kafka.connect.errors.DataException;
+import org.junit.jupiter.api.Test;
+
+class StructPointExtractorTest {
+
+  private static final Schema SPARSE_SCHEMA =
+      SchemaBuilder.struct()
+          .field("indices", SchemaBuilder.array(Schema.INT32_SCHEMA).build())
+          .field("values", SchemaBuilder.array(Schema.FLOAT32_SCHEMA).build())
+          .build();
+
+  private static final Schema NAMED_VECTORS_SCHEMA =
+      SchemaBuilder.struct()
+          .field("dense", SchemaBuilder.array(Schema.FLOAT32_SCHEMA).build())
+          .field("sparse", SPARSE_SCHEMA)
+          .field("multi", SchemaBuilder.array(SchemaBuilder.array(Schema.FLOAT64_SCHEMA)).build())
+          .build();
+
+  private static final Schema PAYLOAD_SCHEMA =
+      SchemaBuilder.struct()
+          .field("text", Schema.STRING_SCHEMA)
+          .field("count", Schema.OPTIONAL_INT32_SCHEMA)
+          .field("tags", SchemaBuilder.array(Schema.STRING_SCHEMA).build())
+          .field("scores", SchemaBuilder.map(Schema.STRING_SCHEMA, Schema.FLOAT64_SCHEMA).build())
+          .field("created", Timestamp.SCHEMA)
+          .field("price", Decimal.schema(2))
+          .build();
+
+  private static final Schema NAMED_RECORD_SCHEMA =
+      SchemaBuilder.struct()
+          .field("id", Schema.INT64_SCHEMA)
+          .field("collection_name", Schema.STRING_SCHEMA)
+          .field("vector", NAMED_VECTORS_SCHEMA)
+          .field("payload", PAYLOAD_SCHEMA)
+          .build();
+
+  private static final Schema DENSE_RECORD_SCHEMA =
+      SchemaBuilder.struct()
+          .field("id", Schema.STRING_SCHEMA)
+          .field("collection_name", Schema.STRING_SCHEMA)
+          .field("vector", SchemaBuilder.array(Schema.FLOAT64_SCHEMA).optional().build())
+          .field("payload", SchemaBuilder.map(Schema.STRING_SCHEMA, Schema.STRING_SCHEMA).build())
+          .build();
+
+  private static void assertSamePoint(Struct record, String collectionNameOverride)
+      throws Exception {
+    ValueExtractor expected = new ValueExtractor(record, collectionNameOverride);
+    StructPointExtractor actual = new StructPointExtractor(record, collectionNameOverride);
+
+    actual.validateOptions();
+    assertEquals(expected.getCollectionName(), actual.getCollectionName());
+    assertEquals(expected.getPointId(), actual.getPointId());
+    assertEquals(expected.getPointStruct(), actual.getPointStruct());
+  }
+
+  private static Struct namedRecord() {
+    Struct payload =
+        new Struct(PAYLOAD_SCHEMA)
+            .put("text", "some text")
+            .put("tags", List.of("a", "b"))
+            .put("scores", Map.of("x", 0.5, "y", 2.0))
+            .put("created", new Date(1700000000000L))
+            .put("price", new BigDecimal("12.34"));
+    Struct sparse =
+        new Struct(SPARSE_SCHEMA)
+            .put("indices", List.of(3, 17, 42))
+            .put("values", List.of(0.1f, 0.2f, 0.3f));
+    Struct vectors =
+        new Struct(NAMED_VECTORS_SCHEMA)
+            .put("dense", List.of(0.5f, 1.0f, -0.25f))
+            .put("sparse", sparse)
+            .put("multi", List.of(List.of(0.1, 0.2), List.of(0.3, 0.4)));
+    return new Struct(NAMED_RECORD_SCHEMA)
+        .put("id", 42L)
+        .put("collection_name", "collection")
+        .put("vector", vectors)
+        .put("payload", payload);
+  }
+
+  @Test
+  void testNamedVectorsMatchGenericConversion() throws Exception {
+    assertSamePoint(namedRecord(), null);
+    assertSamePoint(namedRecord(), "override");
+  }
+
+  @Test
+  void testDenseVectorMatchesGenericConversion() throws Exception {
+    Struct record =
+        new Struct(DENSE_RECORD_SCHEMA)
+            .put("id", "a5b3c9e4-3d8b-4b1a-9c3e-1f2a3b4c5d6e")
+            .put("collection_name", "collection")
+            .put("vector", Arrays.asList(1.0, 2.5, 3.0))
+            .put("payload", Map.of("key", "value"));
+    assertSamePoint(record, null);
+
+    record.put("vector", null);
+    assertSamePoint(record, null);
+  }
+
+  @Test
+  void testFloatPayloadKeepsItsDecimalForm() throws Exception {
+    Schema payloadSchema = SchemaBuilder.struct().field("score", Schema.FLOAT32_SCHEMA).build();
+    Schema schema =
+        SchemaBuilder.struct()
+            .field("id", Schema.INT64_SCHEMA)
+            .field("collection_name", Schema.STRING_SCHEMA)
+            .field("vector", SchemaBuilder.array(Schema.FLOAT32_SCHEMA).build())
+            .field("payload", payloadSchema)
+            .build();
+    Struct record =
+        new Struct(schema)
+            .put("id", 1L)
+            .put("collection_name", "collection")
+            .put("vector", List.of(0.1f))
+            .put("payload", new Struct(payloadSchema).put("score", 0.1f));
+
+    PointStruct point = new StructPointExtractor(record, null).getPointStruct();
+
+    assertEquals(0.1, point.getPayloadOrThrow("score").getDoubleValue());
+    assertSamePoint(record, null);
+  }
+
+  @Test
+  void testPlanIsCompiledOncePerSchema() {
+    assertSame(
+        StructPointExtractor.plan(NAMED_RECORD_SCHEMA),
+        StructPointExtractor.plan(NAMED_RECORD_SCHEMA));
+    assertNotSame(
+        StructPointExtractor.plan(NAMED_RECORD_SCHEMA),
+        StructPointExtractor.plan(DENSE_RECORD_SCHEMA));
+  }
+
+  @Test
+  void testInvalidRecords() {
+    Schema schema =
+        SchemaBuilder.struct()
+            .field("id", Schema.OPTIONAL_INT64_SCHEMA)
+            .field("vector", SchemaBuilder.array(Schema.FLOAT32_SCHEMA).build())
+            .build();
+    Struct record = new Struct(schema).put("vector", List.of());
+    StructPointExtractor extractor = new StructPointExtractor(record, null);
+
+    assertThrows(DataException.class, extractor::validateOptions);
+    assertThrows(DataException.class, extractor::getCollectionName);
+    assertThrows(DataException.class, extractor::getPointId);
+
+    record.put("id", 1L);
+    assertThrows(DataException.class, extractor::getPointStruct);
+  }
+
+  @Test
+  void testBytesVectors() throws Exception {
+    Schema schema =
+        SchemaBuilder.struct()
+            .field("id", Schema.INT64_SCHEMA)
+            .field("collection_name", Schema.STRING_SCHEMA)
+            .field("vector", SchemaBuilder.map(Schema.STRING_SCHEMA, Schema.BYTES_SCHEMA).build())
+            .build();
+    // 1 and -2 as little-endian float16.
+    byte[] bytes = {0x00, 0x3c, 0x00, (byte) 0xc0};
+    Struct record =
+        new Struct(schema)
+            .put("id", 1L)
+            .put("collection_name", "c")
+            .put("vector", Map.of("dense", bytes));
+
+    StructPointExtractor extractor =
+        new StructPointExtractor(record, null, VectorEncoding.FLOAT16, PayloadProjections.NONE);
+    Vectors vectors = extractor.getPointStruct().getVectors();
+    assertEquals(List.of(1f, -2f), vectors.getVectors().getVectorsOrThrow("dense").getDataList());
+
+    Schema denseSchema =
+        SchemaBuilder.struct()
+            .field("id", Schema.INT64_SCHEMA)
+            .field("collection_name", Schema.STRING_SCHEMA)
+            .field("vector", Schema.BYTES_SCHEMA)
+            .build();
+    Struct denseRecord =
+        new Struct(denseSchema)
+            .put("id", 1L)
+            .put("collection_name", "c")
+            .put("vector", ByteBuffer.wrap(bytes));
+    StructPointExtractor denseExtractor =
+        new StructPointExtractor(
+            denseRecord, null, VectorEncoding.FLOAT16, PayloadProjections.NONE);
+    Vectors dense = denseExtractor.getPointStruct().getVectors();
+    assertEquals(List.of(1f, -2f), dense.getVector().getDataList());
+  }
+
+  @Test
+  void testPayloadProjectionMatchesGenericConversion() throws Exception {
+    Map<String, String> props = new HashMap<>();
+    props.put(QdrantSinkConfig.PAYLOAD_INCLUDE + ".collection", "text, scores");
+    props.put(QdrantSinkConfig.PAYLOAD_EXCLUDE + ".collection", "scores.y");
+    PayloadProjections projections = PayloadProjections.from(new QdrantSinkConfig(props));
+    Struct record = namedRecord();
+
+    ValueExtractor expected =
+        new ValueExtractor(record, null, VectorEncoding.FLOAT32, projections);
+    StructPointExtractor actual =
+        new StructPointExtractor(record, null, VectorEncoding.FLOAT32, projections);
+
+    PointStruct point = actual.getPointStruct();
+    assertEquals(expected.getPointStruct(), point);
+    assertEquals(Set.of("text", "scores"), point.getPayloadMap().keySet());
+    assertEquals(
+        Set.of("x"), point.getPayloadMap().get("scores").getStructValue().getFieldsMap().keySet());
+  }
+}
@@ -86,6 +86,16 @@ class ValueMapFactoryMapTest {
     assertEquals(ValueFactory.value(9223372036854775807L), resultMap.get("longKey"));
   }
 
+  @Test
+  void testValueMapWithLongValueBeyondDoublePrecision() throws Exception {
+    Map<String, Object> inputMap = new HashMap<>();
+    inputMap.put("longKey", 9007199254740993L);
+
+    Map<String, Value> resultMap = ValueMapFactory.valueMap(inputMap);
+
+    assertEquals(ValueFactory.value(9007199254740993L), resultMap.get("longKey"));
+  }
+
   @Test
   void testValueMapWithStructValue() throws Exception {
     Map<String, Object> inputMap = new HashMap<>();
@@ -0,0 +1,64 @@
+package io.qdrant.kafka;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.qdrant.client.ValueFactory;
+import io.qdrant.client.grpc.JsonWithInt.Struct;
+import io.qdrant.client.grpc.JsonWithInt.Value;
+import java.util.Arrays;
+import java.util.Map;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.junit.jupiter.api.Test;
+
+class ValueMapFactoryStructTest {
+
+  private static final Schema PAYLOAD_SCHEMA =
+      SchemaBuilder.struct()
+          .field("name", Schema.STRING_SCHEMA)
+          .field("count", Schema.OPTIONAL_INT32_SCHEMA)
+          .build();
+
+  private static final Schema RECORD_SCHEMA =
+      SchemaBuilder.struct()
+          .field("id", Schema.INT64_SCHEMA)
+          .field("collection_name", Schema.STRING_SCHEMA)
+          .field("vector", SchemaBuilder.array(Schema.FLOAT32_SCHEMA).build())
+          .field("payload", PAYLOAD_SCHEMA)
+          .build();
+
+  @Test
+  void testValueMapWithStruct() throws Exception {
+    org.apache.kafka.connect.data.Struct payload =
+        new org.apache.kafka.connect.data.Struct(PAYLOAD_SCHEMA).put("name", "kafka");
+    org.apache.kafka.connect.data.Struct record =
+        new org.apache.kafka.connect.data.Struct(RECORD_SCHEMA)
+            .put("id", 9007199254740993L)
+            .put("collection_name", "collection")
+            .put("vector", Arrays.asList(0.5f, 1.0f))
+            .put("payload", payload);
+
+    Map<String, Value> resultMap = ValueMapFactory.valueMap(record);
+
+    assertEquals(4, resultMap.size());
+    assertEquals(ValueFactory.value(9007199254740993L), resultMap.get("id"));
+    assertEquals(ValueFactory.value("collection"), resultMap.get("collection_name"));
+    assertEquals(
+        ValueFactory.list(Arrays.asList(ValueFactory.value(0.5), ValueFactory.value(1L))),
+        resultMap.get("vector"));
+
+    Value expectedPayload =
+        Value.newBuilder()
+            .setStructValue(
+                Struct.newBuilder()
+                    .putFields("name", ValueFactory.value("kafka"))
+                    .putFields("count", ValueFactory.nullValue()))
+            .build();
+    assertEquals(expectedPayload, resultMap.get("payload"));
+  }
+
+  @Test
+  void testValueMapWithNull() throws Exception {
+    assertTrue(ValueMapFactory.valueMap(null).isEmpty());
+  }
+}
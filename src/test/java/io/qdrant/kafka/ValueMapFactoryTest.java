@@ -145,4 +145,12 @@ class ValueMapFactoryTest {
 
     assertEquals(expectedListValue, result);
   }
+
+  @Test
+  void testFloatKeepsItsDecimalForm() throws Exception {
+    assertEquals(0.1, ValueMapFactory.toValue(0.1f).getDoubleValue());
+    assertEquals(ValueFactory.value(2L), ValueMapFactory.toValue(2.0f));
+    Value list = ValueMapFactory.toValue(new float[] {0.3f});
+    assertEquals(0.3, list.getListValue().getValues(0).getDoubleValue());
+  }
 }
@@ -0,0 +1,62 @@
+package io.qdrant.kafka;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.qdrant.client.grpc.Points.Vector;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+import org.apache.kafka.connect.errors.DataException;
+import org.junit.jupiter.api.Test;
+
+class VectorEncodingTest {
+
+  private static ByteBuffer shorts(int... values) {
+    ByteBuffer buffer = ByteBuffer.allocate(values.length * 2).order(ByteOrder.LITTLE_ENDIAN);
+    for (int value : values) {
+      buffer.putShort((short) value);
+    }
+    return buffer.flip();
+  }
+
+  @Test
+  void testFloat32() {
+    ByteBuffer bytes = ByteBuffer.allocate(12).order(ByteOrder.LITTLE_ENDIAN);
+    bytes.putFloat(0.1f).putFloat(-2.5f).putFloat(Float.MAX_VALUE).flip();
+
+    Vector vector = VectorEncoding.FLOAT32.vector(bytes).build();
+
+    assertEquals(List.of(0.1f, -2.5f, Float.MAX_VALUE), vector.getDataList());
+    assertEquals(12, bytes.remaining());
+  }
+
+  @Test
+  void testFloat16() {
+    // 1, -2, 0.5, 65504 (largest half), 2^-24 (smallest subnormal), -0, infinity.
+    ByteBuffer bytes = shorts(0x3c00, 0xc000, 0x3800, 0x7bff, 0x0001, 0x8000, 0x7c00);
+
+    Vector vector = VectorEncoding.FLOAT16.vector(bytes).build();
+
+    assertEquals(
+        List.of(1f, -2f, 0.5f, 65504f, 0x1p-24f, -0f, Float.POSITIVE_INFINITY),
+        vector.getDataList());
+    assertTrue(Float.isNaN(VectorEncoding.FLOAT16.vector(shorts(0x7e00)).getData(0)));
+  }
+
+  @Test
+  void testBfloat16() {
+    // 1, -2, 0.15625, the upper halves of their float32 bits.
+    ByteBuffer bytes = shorts(0x3f80, 0xc000, 0x3e20);
+
+    Vector vector = VectorEncoding.BFLOAT16.vector(bytes).build();
+
+    assertEquals(List.of(1f, -2f, 0.15625f), vector.getDataList());
+  }
+
+  @Test
+  void testInvalidLength() {
+    assertThrows(DataException.class, () -> VectorEncoding.FLOAT32.vector(ByteBuffer.allocate(0)));
+    assertThrows(DataException.class, () -> VectorEncoding.FLOAT32.vector(ByteBuffer.allocate(6)));
+    assertThrows(DataException.class, () -> VectorEncoding.FLOAT16.vector(ByteBuffer.allocate(3)));
+  }
+}
@@ -1,5 +1,6 @@
 package io.qdrant.kafka;
 
+import static io.qdrant.client.ValueFactory.value;
 import static org.junit.jupiter.api.Assertions.*;
 
 import io.qdrant.client.grpc.JsonWithInt.ListValue;
@@ -220,4 +221,62 @@ class VectorsFactoryTest {
     Value vectorValue = Value.newBuilder().setStructValue(outerStruct).build();
     assertThrows(DataException.class, () -> VectorsFactory.vectors(vectorValue));
   }
+
+  @Test
+  void testDenseVectorMatchesElementWiseBuilder() {
+    float[] data = new float[1536];
+    Vector.Builder expected = Vector.newBuilder();
+    for (int i = 0; i < data.length; i++) {
+      data[i] = (float) Math.sin(i);
+      expected.addData(data[i]);
+    }
+
+    assertEquals(expected.build(), VectorsFactory.denseVector(data, data.length).build());
+    assertEquals(
+        Vector.newBuilder().addData(data[0]).addData(data[1]).build(),
+        VectorsFactory.denseVector(data, 2).build());
+    assertEquals(Vector.getDefaultInstance(), VectorsFactory.denseVector(data, 0).build());
+  }
+
+  @Test
+  void testInvalidMultiDenseVectorShape() {
+    ListValue row = ListValue.newBuilder().addValues(value(0.1)).addValues(value(0.2)).build();
+    ListValue listValue =
+        ListValue.newBuilder()
+            .addValues(Value.newBuilder().setListValue(row).build())
+            .addValues(value(0.3))
+            .build();
+    Value vectorValue = Value.newBuilder().setListValue(listValue).build();
+    assertThrows(DataException.class, () -> VectorsFactory.vectors(vectorValue));
+
+    ListValue mixed =
+        ListValue.newBuilder()
+            .addValues(value(0.3))
+            .addValues(Value.newBuilder().setListValue(row).build())
+            .build();
+    Value mixedValue = Value.newBuilder().setListValue(mixed).build();
+    assertThrows(DataException.class, () -> VectorsFactory.vectors(mixedValue));
+  }
+
+  @Test
+  void testBinaryDenseVector() {
+    // 0.1, 0.2, 0.3 and 0.4 as little-endian float32.
+    Value base64 = value("zczMPc3MTD6amZk+zczMPg==");
+    Vector expected =
+        Vector.newBuilder().addData(0.1f).addData(0.2f).addData(0.3f).addData(0.4f).build();
+
+    assertEquals(expected, VectorsFactory.vectors(base64).getVector());
+
+    Struct named = Struct.newBuilder().putFields("dense", base64).build();
+    Value namedValue = Value.newBuilder().setStructValue(named).build();
+    assertEquals(
+        expected, VectorsFactory.vectors(namedValue).getVectors().getVectorsOrThrow("dense"));
+
+    // The same bytes are eight bfloat16 values.
+    Vectors halves = VectorsFactory.vectors(base64, VectorEncoding.BFLOAT16);
+    assertEquals(8, halves.getVector().getDataCount());
+
+    assertThrows(DataException.class, () -> VectorsFactory.vectors(value("not base64!")));
+    assertThrows(DataException.class, () -> VectorsFactory.vectors(value("AAAA")));
+  }
 }
@@ -0,0 +1,240 @@
+package io.qdrant.kafka;
+
+import static io.qdrant.client.PointIdFactory.id;
+import static io.qdrant.client.ValueFactory.value;
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.qdrant.client.grpc.Collections.ShardKey;
+import io.qdrant.client.grpc.Points.PointStruct;
+import io.qdrant.client.grpc.Points.PointsUpdateOperation;
+import io.qdrant.client.grpc.Points.UpsertPoints;
+import io.qdrant.client.grpc.Points.Vector;
+import io.qdrant.client.grpc.Points.Vectors;
+import io.qdrant.kafka.WriteRequest.Operation;
+import java.util.List;
+import org.apache.kafka.connect.errors.DataException;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.junit.jupiter.api.Test;
+
+class WriteBatchTest {
+
+  private static PointStruct point(long pointId) {
+    return PointStruct.newBuilder().setId(id(pointId)).build();
+  }
+
+  private static PointStruct point(long pointId, int dimension) {
+    Vector vector = VectorsFactory.denseVector(new float[dimension], dimension).build();
+    return point(pointId).toBuilder().setVectors(Vectors.newBuilder().setVector(vector)).build();
+  }
+
+  private static SinkRecord record(long offset) {
+    return new SinkRecord("topic", 0, null, null, null, null, offset);
+  }
+
+  @Test
+  void testDeletesAreGroupedPerCollection() {
+    WriteBatch batch = new WriteBatch();
+    batch.delete("first", id(1), record(0));
+    batch.delete("second", id(2), record(1));
+    batch.delete("first", id(3), record(2));
+
+    List<WriteRequest> requests = batch.getRequests();
+
+    assertEquals(2, requests.size());
+    assertEquals(Operation.DELETE, requests.get(0).getOperation());
+    assertEquals("first", requests.get(0).getCollectionName());
+    assertEquals(List.of(id(1), id(3)), requests.get(0).getPointIds());
+    assertEquals("second", requests.get(1).getCollectionName());
+    assertEquals(List.of(id(2)), requests.get(1).getPointIds());
+  }
+
+  @Test
+  void testWritesAreGroupedPerShardKey() {
+    ShardKey eu = ShardKey.newBuilder().setKeyword("eu").build();
+    ShardKey us = ShardKey.newBuilder().setKeyword("us").build();
+    WriteBatch batch = new WriteBatch();
+    batch.upsert("collection", eu, point(1), record(0));
+    batch.upsert("collection", us, point(1), record(1));
+    batch.upsert("collection", eu, point(2), record(2));
+    batch.delete("collection", us, id(3), record(3));
+
+    List<WriteRequest> requests = batch.getRequests();
+
+    // The later write to point 1 replaces the earlier one, whatever its shard key.
+    assertEquals(3, requests.size());
+    assertEquals(eu, requests.get(0).getShardKey());
+    assertEquals(List.of(id(2)), requests.get(0).getPointIds());
+    assertEquals(us, requests.get(1).getShardKey());
+    assertEquals(Operation.UPSERT, requests.get(1).getOperation());
+    assertEquals(List.of(id(1)), requests.get(1).getPointIds());
+    assertEquals(List.of(record(0), record(1)), requests.get(1).getRecords());
+    assertEquals(us, requests.get(2).getShardKey());
+    assertEquals(Operation.DELETE, requests.get(2).getOperation());
+    assertEquals(List.of(id(3)), requests.get(2).getPointIds());
+  }
+
+  @Test
+  void testTombstoneWithoutShardKeyReplacesUpsert() {
+    ShardKey tenant = ShardKey.newBuilder().setKeyword("tenant").build();
+    WriteBatch batch = new WriteBatch();
+    // Tombstones have no payload, so a field-based shard key leaves them without one.
+    batch.delete("collection", null, id(2), record(0));
+    batch.upsert("collection", tenant, point(1), record(1));
+    batch.delete("collection", null, id(1), record(2));
+
+    List<WriteRequest> requests = batch.getRequests();
+
+    assertEquals(1, requests.size());
+    assertEquals(Operation.DELETE, requests.get(0).getOperation());
+    assertNull(requests.get(0).getShardKey());
+    assertEquals(List.of(id(2), id(1)), requests.get(0).getPointIds());
+    assertEquals(List.of(record(0), record(1), record(2)), requests.get(0).getRecords());
+  }
+
+  @Test
+  void testLastWriteToPointWins() {
+    WriteBatch batch = new WriteBatch();
+    batch.upsert("collection", point(1), record(0));
+    batch.upsert("collection", point(2), record(1));
+    batch.delete("collection", id(1), record(2));
+    batch.delete("collection", id(2), record(3));
+    batch.upsert("collection", point(2), record(4));
+
+    List<WriteRequest> requests = batch.getRequests();
+
+    assertEquals(2, requests.size());
+    assertEquals(Operation.UPSERT, requests.get(0).getOperation());
+    assertEquals(List.of(id(2)), requests.get(0).getPointIds());
+    assertEquals(1, requests.get(0).getWrites().size());
+    assertEquals(record(4), requests.get(0).getWrites().get(0).getRecord());
+    assertEquals(List.of(record(1), record(3), record(4)), requests.get(0).getRecords());
+    assertEquals(Operation.DELETE, requests.get(1).getOperation());
+    assertEquals(List.of(id(1)), requests.get(1).getPointIds());
+    assertEquals(List.of(record(0), record(2)), requests.get(1).getRecords());
+  }
+
+  @Test
+  void testEmptyBatchHasNoRequests() {
+    WriteBatch batch = new WriteBatch();
+
+    assertTrue(batch.isEmpty());
+    assertTrue(batch.getRequests().isEmpty());
+  }
+
+  @Test
+  void testRequestsAreSplitByPointCount() {
+    WriteBatch batch = new WriteBatch(2, Integer.MAX_VALUE);
+    for (int i = 0; i < 5; i++) {
+      batch.upsert("collection", point(i), record(i));
+    }
+
+    List<WriteRequest> requests = batch.getRequests();
+
+    assertEquals(3, requests.size());
+    assertEquals(List.of(id(0), id(1)), requests.get(0).getPointIds());
+    assertEquals(List.of(id(2), id(3)), requests.get(1).getPointIds());
+    assertEquals(List.of(id(4)), requests.get(2).getPointIds());
+  }
+
+  @Test
+  void testRequestsAreSplitBySize() {
+    WriteBatch batch = new WriteBatch(Integer.MAX_VALUE, 1024);
+    for (int i = 0; i < 10; i++) {
+      batch.upsert("collection", point(i, 100), record(i));
+    }
+
+    List<WriteRequest> requests = batch.getRequests();
+
+    assertTrue(requests.size() > 1);
+    int points = 0;
+    for (WriteRequest request : requests) {
+      UpsertPoints.Builder upsert = UpsertPoints.newBuilder().setCollectionName("collection");
+      request.getWrites().forEach(write -> upsert.addPoints(write.getPoint()));
+      assertTrue(upsert.build().getSerializedSize() <= 1024);
+      points += request.getWrites().size();
+    }
+    assertEquals(10, points);
+  }
+
+  @Test
+  void testOversizedPointIsRejected() {
+    WriteBatch batch = new WriteBatch(Integer.MAX_VALUE, 1024);
+    batch.upsert("collection", point(1), record(0));
+
+    assertThrows(DataException.class, () -> batch.upsert("collection", point(1, 1000), record(1)));
+
+    List<WriteRequest> requests = batch.getRequests();
+    assertEquals(1, requests.size());
+    assertEquals(List.of(record(0)), requests.get(0).getRecords());
+  }
+
+  @Test
+  void testSizeCountsLastWritePerPoint() {
+    WriteBatch batch = new WriteBatch();
+    batch.upsert("collection", point(1, 4), record(0));
+    batch.upsert("collection", point(2, 4), record(1));
+    long size = batch.getSerializedSize();
+    batch.upsert("collection", point(1, 4), record(2));
+
+    assertEquals(2, batch.size());
+    assertEquals(size, batch.getSerializedSize());
+  }
+
+  @Test
+  void testAddAllSupersedesWrites() {
+    WriteBatch batch = new WriteBatch();
+    batch.upsert("collection", point(1), record(0));
+    WriteBatch other = new WriteBatch();
+    other.delete("collection", id(1), record(1));
+
+    batch.addAll(other);
+
+    List<WriteRequest> requests = batch.getRequests();
+    assertEquals(1, requests.size());
+    assertEquals(Operation.DELETE, requests.get(0).getOperation());
+    assertEquals(List.of(record(0), record(1)), requests.get(0).getRecords());
+  }
+
+  private static PointsUpdateOperation setPayload(long pointId, String key, String value) {
+    PointStruct point = point(pointId).toBuilder().putPayload(key, value(value)).build();
+    return PointOperation.SET_PAYLOAD.update(point, null);
+  }
+
+  @Test
+  void testPartialUpdatesAreFoldedIntoUpsert() {
+    WriteBatch batch = new WriteBatch();
+    batch.upsert("collection", point(1, 4), record(0));
+    batch.update("collection", null, id(1), setPayload(1, "title", "kafka"), record(1));
+
+    List<WriteRequest> requests = batch.getRequests();
+
+    assertEquals(1, requests.size());
+    assertEquals(Operation.UPSERT, requests.get(0).getOperation());
+    PointStruct point = requests.get(0).getWrites().get(0).getPoint();
+    assertEquals(value("kafka"), point.getPayloadMap().get("title"));
+    assertEquals(4, point.getVectors().getVector().getDataCount());
+    assertEquals(List.of(record(0), record(1)), requests.get(0).getRecords());
+  }
+
+  @Test
+  void testPartialUpdatesKeepRecordOrder() {
+    WriteBatch batch = new WriteBatch();
+    batch.update("collection", null, id(1), setPayload(1, "title", "first"), record(0));
+    batch.update("collection", null, id(2), setPayload(2, "title", "other"), record(1));
+    batch.update("collection", null, id(1), setPayload(1, "title", "second"), record(2));
+    batch.delete("collection", id(2), record(3));
+    batch.update("collection", null, id(2), setPayload(2, "title", "dropped"), record(4));
+
+    List<WriteRequest> requests = batch.getRequests();
+
+    assertEquals(2, requests.size());
+    assertEquals(Operation.DELETE, requests.get(0).getOperation());
+    assertEquals(List.of(record(1), record(3), record(4)), requests.get(0).getRecords());
+    assertEquals(Operation.UPDATE, requests.get(1).getOperation());
+    List<PointsUpdateOperation> updates = requests.get(1).getWrites().get(0).getUpdates();
+    assertEquals(2, updates.size());
+    assertEquals(value("first"), updates.get(0).getSetPayload().getPayloadMap().get("title"));
+    assertEquals(value("second"), updates.get(1).getSetPayload().getPayloadMap().get("title"));
+    assertEquals(List.of(record(0), record(2)), requests.get(1).getRecords());
+  }
+}
@@ -0,0 +1,114 @@
+package io.qdrant.kafka;
+
+import static io.qdrant.client.PointIdFactory.id;
+import static io.qdrant.client.ValueFactory.value;
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.qdrant.client.grpc.Points.PointStruct;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.junit.jupiter.api.Test;
+
+class WriteBufferTest {
+
+  private static void upsert(WriteBuffer buffer, int partition, long pointId, long nowMs) {
+    SinkRecord record = new SinkRecord("topic", partition, null, null, null, "value", pointId);
+    PointStruct point = PointStruct.newBuilder().setId(id(pointId)).build();
+    buffer.batch(record, nowMs).upsert("collection", point, record);
+  }
+
+  @Test
+  void testWritesLingerUntilReady() {
+    WriteBuffer buffer = new WriteBuffer(100, Integer.MAX_VALUE, 1000);
+    assertFalse(buffer.isReady(0));
+
+    upsert(buffer, 0, 1, 0);
+    upsert(buffer, 0, 2, 500);
+
+    assertFalse(buffer.isReady(999));
+    assertTrue(buffer.isReady(1000));
+  }
+
+  @Test
+  void testFullBufferIsReady() {
+    WriteBuffer buffer = new WriteBuffer(3, Integer.MAX_VALUE, 1000);
+
+    upsert(buffer, 0, 1, 0);
+    upsert(buffer, 1, 2, 0);
+    assertFalse(buffer.isReady(0));
+
+    upsert(buffer, 2, 3, 0);
+    assertTrue(buffer.isReady(0));
+  }
+
+  @Test
+  void testPartitionsAreDrainedTogether() {
+    WriteBuffer buffer = new WriteBuffer(100, Integer.MAX_VALUE, 1000);
+    upsert(buffer, 0, 1, 0);
+    upsert(buffer, 1, 2, 0);
+
+    List<WriteRequest> requests = buffer.drain();
+
+    assertEquals(1, requests.size());
+    assertEquals(List.of(id(1), id(2)), requests.get(0).getPointIds());
+    assertFalse(buffer.isReady(1000));
+  }
+
+  @Test
+  void testOnlyClosedPartitionsAreDrained() {
+    WriteBuffer buffer = new WriteBuffer(100, Integer.MAX_VALUE, 1000);
+    upsert(buffer, 0, 1, 0);
+    upsert(buffer, 1, 2, 0);
+
+    List<WriteRequest> requests = buffer.drain(List.of(new TopicPartition("topic", 0)));
+
+    assertEquals(1, requests.size());
+    assertEquals(List.of(id(1)), requests.get(0).getPointIds());
+    assertEquals(List.of(id(2)), buffer.drain().get(0).getPointIds());
+  }
+
+  @Test
+  void testLingerRestartsFromRemainingPartitions() {
+    WriteBuffer buffer = new WriteBuffer(100, Integer.MAX_VALUE, 1000);
+    upsert(buffer, 0, 1, 0);
+    upsert(buffer, 1, 2, 800);
+
+    buffer.drain(List.of(new TopicPartition("topic", 0)));
+
+    assertFalse(buffer.isReady(1000));
+    assertTrue(buffer.isReady(1800));
+  }
+
+  @Test
+  void testMergedWritesThatDoNotFitAreRejected() {
+    PointStruct point =
+        PointStruct.newBuilder().setId(id(1)).putPayload("title", value("x".repeat(200))).build();
+    PointStruct body =
+        PointStruct.newBuilder().setId(id(1)).putPayload("body", value("y".repeat(50))).build();
+    SinkRecord first = new SinkRecord("topic", 0, null, null, null, "value", 1);
+    SinkRecord second = new SinkRecord("topic", 1, null, null, null, "value", 2);
+    WriteBatch single = new WriteBatch();
+    single.upsert("collection", point, first);
+    List<PointWrite> rejected = new ArrayList<>();
+    WriteBuffer buffer =
+        new WriteBuffer(
+            100,
+            (int) single.getSerializedSize() + 60,
+            1000,
+            (collectionName, write, cause) -> rejected.add(write));
+
+    // Each write fits on its own, the upsert with the update folded into it does not.
+    buffer.batch(first, 0).upsert("collection", point, first);
+    buffer
+        .batch(second, 0)
+        .update("collection", null, id(1), PointOperation.SET_PAYLOAD.update(body, null), second);
+    List<WriteRequest> requests = buffer.drain();
+
+    assertEquals(1, requests.size());
+    assertEquals(List.of(first), requests.get(0).getRecords());
+    assertEquals(1, rejected.size());
+    assertEquals(List.of(second), rejected.get(0).getRecords());
+  }
+}
@@ -0,0 +1,47 @@
+package io.qdrant.kafka;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.qdrant.client.grpc.Points.WriteOrderingType;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.kafka.common.config.ConfigException;
+import org.junit.jupiter.api.Test;
+
+class WriteOptionsTest {
+
+  @Test
+  void testDefaults() {
+    WriteOptions options = WriteOptions.from(new QdrantSinkConfig(new HashMap<>()));
+
+    assertTrue(options.isWait("collection"));
+    assertEquals(WriteOrderingType.Weak, options.getOrdering("collection").getType());
+  }
+
+  @Test
+  void testPerCollectionOverrides() {
+    Map<String, String> props = new HashMap<>();
+    props.put(QdrantSinkConfig.WRITE_WAIT, "false");
+    props.put(QdrantSinkConfig.WRITE_ORDERING, "medium");
+    props.put(QdrantSinkConfig.WRITE_WAIT + ".realtime", "true");
+    props.put(QdrantSinkConfig.WRITE_ORDERING + ".realtime", "strong");
+
+    WriteOptions options = WriteOptions.from(new QdrantSinkConfig(props));
+
+    assertFalse(options.isWait("backfill"));
+    assertEquals(WriteOrderingType.Medium, options.getOrdering("backfill").getType());
+    assertTrue(options.isWait("realtime"));
+    assertEquals(WriteOrderingType.Strong, options.getOrdering("realtime").getType());
+  }
+
+  @Test
+  void testInvalidOverrides() {
+    Map<String, String> props = new HashMap<>();
+    props.put(QdrantSinkConfig.WRITE_ORDERING + ".collection", "eventual");
+    assertThrows(ConfigException.class, () -> WriteOptions.from(new QdrantSinkConfig(props)));
+
+    Map<String, String> waitProps = new HashMap<>();
+    waitProps.put(QdrantSinkConfig.WRITE_WAIT + ".collection", "sometimes");
+    assertThrows(ConfigException.class, () -> WriteOptions.from(new QdrantSinkConfig(waitProps)));
+  }
+}
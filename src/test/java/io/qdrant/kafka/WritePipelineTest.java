@@ -0,0 +1,358 @@
+package io.qdrant.kafka;
+
+import static io.qdrant.client.PointIdFactory.id;
+import static io.qdrant.client.ValueFactory.value;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import io.grpc.Status;
+import io.qdrant.client.QdrantClient;
+import io.qdrant.client.grpc.Points.PointStruct;
+import io.qdrant.client.grpc.Points.ShardKeySelector;
+import io.qdrant.client.grpc.Points.UpdateResult;
+import io.qdrant.client.grpc.Points.UpdateStatus;
+import io.qdrant.kafka.WritePipeline.FailedWrite;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.junit.jupiter.api.Test;
+
+class WritePipelineTest {
+
+  private static final TopicPartition PARTITION = new TopicPartition("topic", 0);
+
+  private static final UpdateResult COMPLETED =
+      UpdateResult.newBuilder().setStatus(UpdateStatus.Completed).build();
+
+  /** Keeps every upsert in flight until the test completes it. */
+  private static class FakeQdrantGrpc extends QdrantGrpc {
+    final List<SettableFuture<UpdateResult>> upserts =
+        Collections.synchronizedList(new ArrayList<>());
+    final List<String> collections = Collections.synchronizedList(new ArrayList<>());
+    final List<List<PointStruct>> points = Collections.synchronizedList(new ArrayList<>());
+
+    FakeQdrantGrpc() {
+      super((QdrantClient) null);
+    }
+
+    @Override
+    public ListenableFuture<UpdateResult> upsert(
+        String collectionName, List<PointStruct> points, ShardKeySelector shardKeySelector) {
+      SettableFuture<UpdateResult> future = SettableFuture.create();
+      this.points.add(points);
+      upserts.add(future);
+      collections.add(collectionName);
+      return future;
+    }
+
+    @Override
+    public void close() {}
+  }
+
+  private static WriteRequest upsert(long pointId, long offset) {
+    return upsert("collection", pointId, offset);
+  }
+
+  private static WriteRequest upsert(String collectionName, long pointId, long offset) {
+    PointStruct point = PointStruct.newBuilder().setId(id(pointId)).build();
+    SinkRecord record = new SinkRecord("topic", 0, null, null, null, "value", offset);
+    return WriteRequest.upsert(collectionName, List.of(PointWrite.upsert(point, record)));
+  }
+
+  // Retries are sent from the retry thread.
+  private static SettableFuture<UpdateResult> awaitUpsert(FakeQdrantGrpc qdrantGrpc, int index)
+      throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5000;
+    while (qdrantGrpc.upserts.size() <= index) {
+      assertTrue(System.currentTimeMillis() < deadline, "Timed out waiting for upsert " + index);
+      Thread.sleep(1);
+    }
+    return qdrantGrpc.upserts.get(index);
+  }
+
+  private static WritePipeline retryingPipeline(
+      FakeQdrantGrpc qdrantGrpc, OffsetTracker offsetTracker, int maxRetries) {
+    return new WritePipeline(
+        qdrantGrpc,
+        offsetTracker,
+        SinkMetrics.noop(),
+        new RetryPolicy(maxRetries, 1, 2),
+        5,
+        5,
+        5);
+  }
+
+  @Test
+  void testWritesToSamePointAreChained() throws Exception {
+    FakeQdrantGrpc qdrantGrpc = new FakeQdrantGrpc();
+    WritePipeline pipeline = new WritePipeline(qdrantGrpc, new OffsetTracker(), 5);
+
+    pipeline.submit(upsert(1, 0));
+    pipeline.submit(upsert(2, 1));
+    pipeline.submit(upsert(1, 2));
+
+    // The second write to point 1 waits for the first one.
+    assertEquals(2, qdrantGrpc.upserts.size());
+
+    qdrantGrpc.upserts.get(0).set(COMPLETED);
+    assertEquals(3, qdrantGrpc.upserts.size());
+    assertFalse(pipeline.await(0));
+
+    qdrantGrpc.upserts.get(1).set(COMPLETED);
+    qdrantGrpc.upserts.get(2).set(COMPLETED);
+    assertTrue(pipeline.await(0));
+  }
+
+  @Test
+  void testOnlyAcknowledgedOffsetsAreCommitted() throws Exception {
+    FakeQdrantGrpc qdrantGrpc = new FakeQdrantGrpc();
+    OffsetTracker offsetTracker = new OffsetTracker();
+    WritePipeline pipeline = new WritePipeline(qdrantGrpc, offsetTracker, 5);
+    Map<TopicPartition, OffsetAndMetadata> current = Map.of(PARTITION, new OffsetAndMetadata(2));
+
+    pipeline.submit(upsert(1, 0));
+    pipeline.submit(upsert(2, 1));
+    qdrantGrpc.upserts.get(1).set(COMPLETED);
+
+    assertEquals(
+        new OffsetAndMetadata(0), offsetTracker.committableOffsets(current).get(PARTITION));
+
+    qdrantGrpc.upserts.get(0).set(COMPLETED);
+    assertEquals(
+        new OffsetAndMetadata(2), offsetTracker.committableOffsets(current).get(PARTITION));
+  }
+
+  @Test
+  void testFailuresAreDrained() throws Exception {
+    FakeQdrantGrpc qdrantGrpc = new FakeQdrantGrpc();
+    WritePipeline pipeline = new WritePipeline(qdrantGrpc, new OffsetTracker(), 5);
+
+    WriteRequest request = upsert(1, 0);
+    pipeline.submit(request);
+    RuntimeException cause = new RuntimeException("boom");
+    qdrantGrpc.upserts.get(0).setException(cause);
+
+    List<FailedWrite> failures = pipeline.drainFailures();
+    assertEquals(1, failures.size());
+    assertSame(request, failures.get(0).getRequest());
+    assertSame(cause, failures.get(0).getCause());
+    assertTrue(pipeline.drainFailures().isEmpty());
+  }
+
+  @Test
+  void testSlowCollectionDoesNotHoldUpOthers() throws Exception {
+    FakeQdrantGrpc qdrantGrpc = new FakeQdrantGrpc();
+    WritePipeline pipeline = new WritePipeline(qdrantGrpc, new OffsetTracker(), 3, 1, 10);
+
+    pipeline.submit(upsert("slow", 1, 0));
+    pipeline.submit(upsert("slow", 2, 1));
+    pipeline.submit(upsert("fast", 3, 2));
+    pipeline.submit(upsert("fast", 4, 3));
+
+    // The second write to the slow collection waits, the fast collection goes ahead.
+    assertEquals(List.of("slow", "fast"), qdrantGrpc.collections);
+
+    qdrantGrpc.upserts.get(1).set(COMPLETED);
+    assertEquals(List.of("slow", "fast", "fast"), qdrantGrpc.collections);
+
+    qdrantGrpc.upserts.get(2).set(COMPLETED);
+    qdrantGrpc.upserts.get(0).set(COMPLETED);
+    assertEquals(List.of("slow", "fast", "fast", "slow"), qdrantGrpc.collections);
+
+    qdrantGrpc.upserts.get(3).set(COMPLETED);
+    assertTrue(pipeline.await(0));
+  }
+
+  @Test
+  void testOnlyAcknowledgedOrCompletedWritesSucceed() throws Exception {
+    FakeQdrantGrpc qdrantGrpc = new FakeQdrantGrpc();
+    WritePipeline pipeline = new WritePipeline(qdrantGrpc, new OffsetTracker(), 5);
+
+    UpdateResult acknowledged =
+        UpdateResult.newBuilder().setStatus(UpdateStatus.Acknowledged).build();
+    UpdateResult rejected = UpdateResult.newBuilder().setStatus(UpdateStatus.ClockRejected).build();
+
+    pipeline.submit(upsert(1, 0));
+    pipeline.submit(upsert(2, 1));
+    qdrantGrpc.upserts.get(0).set(acknowledged);
+    qdrantGrpc.upserts.get(1).set(rejected);
+
+    List<FailedWrite> failures = pipeline.drainFailures();
+    assertEquals(1, failures.size());
+    assertEquals(List.of(id(2)), failures.get(0).getRequest().getPointIds());
+    assertTrue(pipeline.await(0));
+  }
+
+  @Test
+  void testTransientFailuresAreRetried() throws Exception {
+    FakeQdrantGrpc qdrantGrpc = new FakeQdrantGrpc();
+    OffsetTracker offsetTracker = new OffsetTracker();
+    WritePipeline pipeline = retryingPipeline(qdrantGrpc, offsetTracker, 3);
+    Map<TopicPartition, OffsetAndMetadata> current = Map.of(PARTITION, new OffsetAndMetadata(1));
+
+    pipeline.submit(upsert(1, 0));
+    awaitUpsert(qdrantGrpc, 0).setException(Status.UNAVAILABLE.asRuntimeException());
+    awaitUpsert(qdrantGrpc, 1).setException(Status.RESOURCE_EXHAUSTED.asRuntimeException());
+
+    // The request stays pending while it is retried.
+    assertFalse(pipeline.await(0));
+    assertEquals(
+        new OffsetAndMetadata(0), offsetTracker.committableOffsets(current).get(PARTITION));
+
+    awaitUpsert(qdrantGrpc, 2).set(COMPLETED);
+    assertTrue(pipeline.await(0));
+    assertTrue(pipeline.drainFailures().isEmpty());
+    assertTrue(pipeline.drainExhausted().isEmpty());
+    assertEquals(
+        new OffsetAndMetadata(1), offsetTracker.committableOffsets(current).get(PARTITION));
+    pipeline.close();
+  }
+
+  @Test
+  void testExhaustedRetriesAreNotFailures() throws Exception {
+    FakeQdrantGrpc qdrantGrpc = new FakeQdrantGrpc();
+    OffsetTracker offsetTracker = new OffsetTracker();
+    WritePipeline pipeline = retryingPipeline(qdrantGrpc, offsetTracker, 1);
+    Map<TopicPartition, OffsetAndMetadata> current = Map.of(PARTITION, new OffsetAndMetadata(1));
+
+    WriteRequest request = upsert(1, 0);
+    pipeline.submit(request);
+    awaitUpsert(qdrantGrpc, 0).setException(Status.DEADLINE_EXCEEDED.asRuntimeException());
+    awaitUpsert(qdrantGrpc, 1).setException(Status.UNAVAILABLE.asRuntimeException());
+
+    assertTrue(pipeline.await(0));
+    assertTrue(pipeline.drainFailures().isEmpty());
+    assertEquals(List.of(request), pipeline.drainExhausted());
+    // The records are left for the task to submit again.
+    assertEquals(
+        new OffsetAndMetadata(0), offsetTracker.committableOffsets(current).get(PARTITION));
+    pipeline.close();
+  }
+
+  private static WriteRequest upsert(long pointId, String title, long offset) {
+    PointStruct point =
+        PointStruct.newBuilder().setId(id(pointId)).putPayload("title", value(title)).build();
+    SinkRecord record = new SinkRecord("topic", 0, null, null, null, "value", offset);
+    return WriteRequest.upsert("collection", List.of(PointWrite.upsert(point, record)));
+  }
+
+  @Test
+  void testLaterWritesAreNotSentAheadOfExhaustedOnes() throws Exception {
+    FakeQdrantGrpc qdrantGrpc = new FakeQdrantGrpc();
+    WritePipeline pipeline = retryingPipeline(qdrantGrpc, new OffsetTracker(), 1);
+
+    WriteRequest first = upsert(1, "a", 0);
+    WriteRequest second = upsert(1, "b", 1);
+    pipeline.submit(first);
+    pipeline.submit(second);
+    awaitUpsert(qdrantGrpc, 0).setException(Status.UNAVAILABLE.asRuntimeException());
+    awaitUpsert(qdrantGrpc, 1).setException(Status.UNAVAILABLE.asRuntimeException());
+
+    // The later write is held back with the exhausted one instead of being sent.
+    assertTrue(pipeline.await(0));
+    assertEquals(2, qdrantGrpc.upserts.size());
+    List<WriteRequest> exhausted = pipeline.drainExhausted();
+    assertEquals(List.of(first, second), exhausted);
+
+    // Submitted again in order, the later write is the one that remains.
+    for (WriteRequest request : exhausted) {
+      pipeline.submit(request);
+    }
+    awaitUpsert(qdrantGrpc, 2).set(COMPLETED);
+    awaitUpsert(qdrantGrpc, 3).set(COMPLETED);
+    assertTrue(pipeline.await(0));
+    assertEquals(4, qdrantGrpc.points.size());
+    PointStruct last = qdrantGrpc.points.get(3).get(0);
+    assertEquals("b", last.getPayloadOrThrow("title").getStringValue());
+    assertTrue(pipeline.drainExhausted().isEmpty());
+    pipeline.close();
+  }
+
+  @Test
+  void testPermanentFailuresAreNotRetried() throws Exception {
+    FakeQdrantGrpc qdrantGrpc = new FakeQdrantGrpc();
+    WritePipeline pipeline = retryingPipeline(qdrantGrpc, new OffsetTracker(), 3);
+
+    pipeline.submit(upsert(1, 0));
+    qdrantGrpc.upserts.get(0).setException(Status.INVALID_ARGUMENT.asRuntimeException());
+
+    assertTrue(pipeline.await(0));
+    assertEquals(1, qdrantGrpc.upserts.size());
+    assertEquals(1, pipeline.drainFailures().size());
+    assertTrue(pipeline.drainExhausted().isEmpty());
+    pipeline.close();
+  }
+
+  private static WriteRequest upsert(long... pointIds) {
+    List<PointWrite> writes = new ArrayList<>();
+    for (long pointId : pointIds) {
+      PointStruct point = PointStruct.newBuilder().setId(id(pointId)).build();
+      writes.add(
+          PointWrite.upsert(point, new SinkRecord("topic", 0, null, null, null, "value", pointId)));
+    }
+    return WriteRequest.upsert("collection", writes);
+  }
+
+  private static WritePipeline splittingPipeline(
+      FakeQdrantGrpc qdrantGrpc, OffsetTracker offsetTracker, int maxSplitRequests) {
+    return new WritePipeline(
+        qdrantGrpc,
+        offsetTracker,
+        SinkMetrics.noop(),
+        new RetryPolicy(0, 1, 2, maxSplitRequests),
+        5,
+        5,
+        5);
+  }
+
+  @Test
+  void testRejectedRequestsAreSplitUntilFailingPoints() throws Exception {
+    FakeQdrantGrpc qdrantGrpc = new FakeQdrantGrpc();
+    OffsetTracker offsetTracker = new OffsetTracker();
+    WritePipeline pipeline = splittingPipeline(qdrantGrpc, offsetTracker, 8);
+    RuntimeException rejected = Status.INVALID_ARGUMENT.asRuntimeException();
+
+    pipeline.submit(upsert(0, 1, 2, 3));
+    qdrantGrpc.upserts.get(0).setException(rejected);
+    assertEquals(3, qdrantGrpc.upserts.size());
+    assertEquals(2, qdrantGrpc.points.get(1).size());
+    qdrantGrpc.upserts.get(1).set(COMPLETED);
+    qdrantGrpc.upserts.get(2).setException(rejected);
+    assertEquals(5, qdrantGrpc.upserts.size());
+    qdrantGrpc.upserts.get(3).setException(rejected);
+    assertFalse(pipeline.await(0));
+    qdrantGrpc.upserts.get(4).set(COMPLETED);
+
+    assertTrue(pipeline.await(0));
+    List<FailedWrite> failures = pipeline.drainFailures();
+    assertEquals(1, failures.size());
+    assertEquals(List.of(id(2)), failures.get(0).getRequest().getPointIds());
+    assertSame(rejected, failures.get(0).getCause());
+    Map<TopicPartition, OffsetAndMetadata> current = Map.of(PARTITION, new OffsetAndMetadata(4));
+    assertEquals(
+        new OffsetAndMetadata(2), offsetTracker.committableOffsets(current).get(PARTITION));
+  }
+
+  @Test
+  void testSplitsAreBounded() throws Exception {
+    FakeQdrantGrpc qdrantGrpc = new FakeQdrantGrpc();
+    WritePipeline pipeline = splittingPipeline(qdrantGrpc, new OffsetTracker(), 2);
+    RuntimeException rejected = Status.INVALID_ARGUMENT.asRuntimeException();
+
+    pipeline.submit(upsert(0, 1, 2, 3));
+    qdrantGrpc.upserts.get(0).setException(rejected);
+    qdrantGrpc.upserts.get(1).set(COMPLETED);
+    qdrantGrpc.upserts.get(2).setException(rejected);
+
+    assertTrue(pipeline.await(0));
+    assertEquals(3, qdrantGrpc.upserts.size());
+    List<FailedWrite> failures = pipeline.drainFailures();
+    assertEquals(1, failures.size());
+    assertEquals(List.of(id(2), id(3)), failures.get(0).getRequest().getPointIds());
+  }
+}